@@ -0,0 +1,54 @@
+package com.fiap.techchallenge5.benchmark;
+
+import com.fiap.techchallenge5.domain.Ean;
+import com.fiap.techchallenge5.domain.Item;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação dos records de domínio feita a cada requisição, e o preço total do item que vai para o carrinho.
+ * Os casos inválidos medem o custo da {@link IllegalArgumentException} que vira o 400 da API.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="DominioBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DominioBenchmark {
+
+    private Long ean = 7894900011517L;
+    private Long quantidade = 3L;
+    private Long quantidadeInvalida = 1001L;
+    private BigDecimal preco = new BigDecimal("19.90");
+
+    @Benchmark
+    public Ean ean() {
+        return new Ean(this.ean);
+    }
+
+    @Benchmark
+    public Item item() {
+        return new Item(this.ean, this.quantidade);
+    }
+
+    @Benchmark
+    public Object itemInvalido() {
+        try {
+            return new Item(this.ean, this.quantidadeInvalida);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal precoTotalDoItem() {
+        final var item = new Item(this.ean, this.quantidade);
+        return this.preco.multiply(new BigDecimal(item.quantidade()));
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.fiap.techchallenge5.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.ItensDoCarrinhoDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON dos DTOs do carrinho com o {@link ObjectMapper} configurado como o do Spring Boot.
+ * <p>
+ * A escrita do carrinho disponível para pagamento compara o {@code ObjectMapper}, um {@link ObjectWriter} pronto e
+ * um serializador escrito à mão. Os casos {@code ...NoStream} escrevem num {@link OutputStream} descartável, como o
+ * conversor HTTP do Spring faz com a resposta; os demais montam o {@code byte[]} inteiro.
+ * A leitura do {@link AdicionaItemDTO} compara o {@code ObjectMapper} com um {@link ObjectReader} pronto.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="JsonDoCarrinhoBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDoCarrinhoBenchmark {
+
+    private static final OutputStream DESCARTA = new Descarte();
+
+    @Param({"1", "100", "1000"})
+    private int itens;
+
+    private ObjectMapper padrao;
+    private ObjectWriter writerPadrao;
+    private ObjectWriter writerManual;
+    private ObjectReader readerAdicionaItem;
+    private CarrinhoDisponivelParaPagamentoDTO carrinho;
+    private byte[] adicionaItem;
+
+    @Setup
+    public void prepara() throws IOException {
+        this.padrao = Jackson2ObjectMapperBuilder.json().build();
+        this.writerPadrao = this.padrao.writerFor(CarrinhoDisponivelParaPagamentoDTO.class);
+        this.writerManual = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new SimpleModule("carrinho")
+                        .addSerializer(CarrinhoDisponivelParaPagamentoDTO.class, new SerializadorManual()))
+                .build()
+                .writerFor(CarrinhoDisponivelParaPagamentoDTO.class);
+        this.readerAdicionaItem = this.padrao.readerFor(AdicionaItemDTO.class);
+
+        final var lista = new ArrayList<ItensDoCarrinhoDTO>(this.itens);
+        for (int i = 0; i < this.itens; i++) {
+            lista.add(new ItensDoCarrinhoDTO(7894900011517L + i, new BigDecimal("19.90").add(BigDecimal.valueOf(i))));
+        }
+        this.carrinho = new CarrinhoDisponivelParaPagamentoDTO("usuario", new BigDecimal("1990.00"), lista);
+        this.adicionaItem = "{\"ean\":7894900011517,\"quantidade\":3}".getBytes(StandardCharsets.UTF_8);
+
+        if(!Arrays.equals(this.writerPadrao.writeValueAsBytes(this.carrinho), this.writerManual.writeValueAsBytes(this.carrinho))) {
+            throw new IllegalStateException("O serializador manual não gera o mesmo JSON do serializador padrão");
+        }
+    }
+
+    @Benchmark
+    public byte[] escritaObjectMapper() throws IOException {
+        return this.padrao.writeValueAsBytes(this.carrinho);
+    }
+
+    @Benchmark
+    public byte[] escritaObjectWriterPronto() throws IOException {
+        return this.writerPadrao.writeValueAsBytes(this.carrinho);
+    }
+
+    @Benchmark
+    public byte[] escritaSerializadorManual() throws IOException {
+        return this.writerManual.writeValueAsBytes(this.carrinho);
+    }
+
+    @Benchmark
+    public void escritaObjectMapperNoStream() throws IOException {
+        this.padrao.writeValue(DESCARTA, this.carrinho);
+    }
+
+    @Benchmark
+    public void escritaSerializadorManualNoStream() throws IOException {
+        this.writerManual.writeValue(DESCARTA, this.carrinho);
+    }
+
+    @Benchmark
+    public AdicionaItemDTO leituraObjectMapper() throws IOException {
+        return this.padrao.readValue(this.adicionaItem, AdicionaItemDTO.class);
+    }
+
+    @Benchmark
+    public AdicionaItemDTO leituraObjectReaderPronto() throws IOException {
+        return this.readerAdicionaItem.readValue(this.adicionaItem);
+    }
+
+    /**
+     * Escreve o carrinho direto no {@link JsonGenerator}, sem o serializador de bean do Jackson em cada item.
+     */
+    private static final class SerializadorManual extends StdSerializer<CarrinhoDisponivelParaPagamentoDTO> {
+
+        private SerializadorManual() {
+            super(CarrinhoDisponivelParaPagamentoDTO.class);
+        }
+
+        @Override
+        public void serialize(final CarrinhoDisponivelParaPagamentoDTO carrinho,
+                              final JsonGenerator gerador,
+                              final SerializerProvider provider) throws IOException {
+            gerador.writeStartObject(carrinho);
+            gerador.writeStringField("usuario", carrinho.usuario());
+            gerador.writeFieldName("valorTotal");
+            gerador.writeNumber(carrinho.valorTotal());
+            gerador.writeArrayFieldStart("itens");
+            for (final ItensDoCarrinhoDTO item : carrinho.itens()) {
+                gerador.writeStartObject(item);
+                gerador.writeNumberField("ean", item.ean());
+                gerador.writeFieldName("valorTotal");
+                gerador.writeNumber(item.valorTotal());
+                gerador.writeEndObject();
+            }
+            gerador.writeEndArray();
+            gerador.writeEndObject();
+        }
+
+    }
+
+    /**
+     * Ao contrário do {@link OutputStream#nullOutputStream()}, continua aceitando escrita depois do
+     * {@code close()} que o Jackson faz ao final de cada {@code writeValue}.
+     */
+    private static final class Descarte extends OutputStream {
+
+        @Override
+        public void write(final int b) {
+        }
+
+        @Override
+        public void write(final byte[] b, final int inicio, final int tamanho) {
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.fiap.techchallenge5.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fiap.techchallenge5.integrados.JwtUtil;
+import com.fiap.techchallenge5.useCase.token.impl.TokenUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static com.fiap.techchallenge5.benchmark.TokensDeBenchmark.SEGREDO;
+
+/**
+ * Verificação do JWT e permissões em {@link TokenUseCaseImpl}, comparada com a verificação HMAC sem o cache
+ * de tokens verificados, reaproveitando ou não o verificador.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="TokenUseCaseBenchmark -prof gc"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenUseCaseBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Verificacao {
+
+        @Param({"valido", "expirado", "malformado"})
+        public String tipoDeToken;
+
+        TokenUseCaseImpl service;
+        JWTVerifier verificador;
+        String token;
+
+        @Setup
+        public void prepara() {
+            this.service = new TokenUseCaseImpl(SEGREDO, 10000, Duration.ofHours(1), new SimpleMeterRegistry());
+            this.verificador = verificador();
+            this.token = TokensDeBenchmark.token(this.tipoDeToken);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Permissoes {
+
+        TokenUseCaseImpl service;
+        DecodedJWT jwt;
+
+        @Setup
+        public void prepara() {
+            this.service = new TokenUseCaseImpl(SEGREDO, 10000, Duration.ofHours(1), new SimpleMeterRegistry());
+            this.jwt = this.service.pegaJwt(JwtUtil.geraJwt());
+        }
+    }
+
+    @Benchmark
+    public DecodedJWT pegaJwt(final Verificacao verificacao) {
+        return verificacao.service.pegaJwt(verificacao.token);
+    }
+
+    /**
+     * Custo de uma falta no cache: só a verificação HMAC, com o verificador já construído.
+     */
+    @Benchmark
+    public DecodedJWT verificadorReaproveitado(final Verificacao verificacao) {
+        return verifica(verificacao.verificador, verificacao.token);
+    }
+
+    /**
+     * Verificador construído a cada chamada, sem cache.
+     */
+    @Benchmark
+    public DecodedJWT verificadorNovo(final Verificacao verificacao) {
+        return verifica(verificador(), verificacao.token);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> pegaPermissoes(final Permissoes permissoes) {
+        return permissoes.service.pegaPermissoes(permissoes.jwt);
+    }
+
+    private static JWTVerifier verificador() {
+        return JWT.require(Algorithm.HMAC256(SEGREDO))
+                .withIssuer("auth-api")
+                .build();
+    }
+
+    private static DecodedJWT verifica(final JWTVerifier verificador,
+                                       final String token) {
+        try {
+            return verificador.verify(token);
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+}
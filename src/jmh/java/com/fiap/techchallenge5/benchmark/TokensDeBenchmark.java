@@ -0,0 +1,23 @@
+package com.fiap.techchallenge5.benchmark;
+
+import com.fiap.techchallenge5.integrados.JwtUtil;
+
+import java.time.Instant;
+
+public final class TokensDeBenchmark {
+
+    public static final String SEGREDO = "segredoMaisSeguroDoMundo";
+
+    private TokensDeBenchmark() {
+    }
+
+    public static String token(final String tipo) {
+        return switch (tipo) {
+            case "valido" -> JwtUtil.geraJwt();
+            case "expirado" -> JwtUtil.geraJwt(Instant.now().minusSeconds(60));
+            case "malformado" -> "eyJhbGciOiJIUzI1NiJ9.nao-e-um-jwt";
+            default -> throw new IllegalArgumentException("TIPO DE TOKEN DESCONHECIDO: " + tipo);
+        };
+    }
+
+}
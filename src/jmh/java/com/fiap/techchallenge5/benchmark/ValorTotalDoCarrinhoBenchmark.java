@@ -0,0 +1,107 @@
+package com.fiap.techchallenge5.benchmark;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soma do valor total do carrinho a partir das linhas de {@link ItensNoCarrinhoEntity}: stream com
+ * {@code reduce(BigDecimal::add)}, laço simples e centavos em {@code long} (convertendo o {@link BigDecimal}
+ * de cada linha ou já guardados como {@code long}). A aplicação mantém o total incrementalmente, com uma
+ * soma e uma subtração por alteração ({@link #atualizacaoIncremental}); a soma de todas as linhas é a
+ * conciliação dos testes integrados.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="ValorTotalDoCarrinhoBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValorTotalDoCarrinhoBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int linhas;
+
+    private List<ItensNoCarrinhoEntity> itens;
+    private List<ItemEmCentavos> itensEmCentavos;
+    private BigDecimal valorTotal;
+    private BigDecimal valorAnteriorItem;
+    private BigDecimal precoTotalItem;
+
+    @Setup
+    public void prepara() {
+        final var aleatorio = new SplittableRandom(42);
+        this.itens = new ArrayList<>(this.linhas);
+        this.itensEmCentavos = new ArrayList<>(this.linhas);
+        for (int i = 0; i < this.linhas; i++) {
+            final var centavos = aleatorio.nextLong(1, 10_000_000L);
+            this.itens.add(new ItensNoCarrinhoEntity(
+                    new ItensNoCarrinhoId(1L, 7894900011517L + i),
+                    BigDecimal.valueOf(centavos, 2)
+            ));
+            this.itensEmCentavos.add(new ItemEmCentavos(centavos));
+        }
+        this.valorTotal = this.streamReduce();
+        this.valorAnteriorItem = this.itens.get(0).getPrecoTotal();
+        this.precoTotalItem = BigDecimal.valueOf(aleatorio.nextLong(1, 10_000_000L), 2);
+    }
+
+    @Benchmark
+    public BigDecimal streamReduce() {
+        return this.itens
+                .stream()
+                .map(ItensNoCarrinhoEntity::getPrecoTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal lacoBigDecimal() {
+        var soma = BigDecimal.ZERO;
+        for (final var item : this.itens) {
+            soma = soma.add(item.getPrecoTotal());
+        }
+        return soma;
+    }
+
+    /**
+     * Centavos somados em {@code long}, convertendo o preço de cada linha: o custo se só a soma mudasse.
+     */
+    @Benchmark
+    public long lacoCentavosConvertendo() {
+        var soma = 0L;
+        for (final var item : this.itens) {
+            soma += item.getPrecoTotal().movePointRight(2).longValueExact();
+        }
+        return soma;
+    }
+
+    /**
+     * Centavos já guardados como {@code long} na linha: o custo se a representação do dinheiro mudasse.
+     */
+    @Benchmark
+    public long lacoCentavos() {
+        var soma = 0L;
+        for (final var item : this.itensEmCentavos) {
+            soma += item.precoTotalEmCentavos();
+        }
+        return soma;
+    }
+
+    @Benchmark
+    public BigDecimal atualizacaoIncremental() {
+        return this.valorTotal
+                .subtract(this.valorAnteriorItem)
+                .add(this.precoTotalItem);
+    }
+
+    private record ItemEmCentavos(long precoTotalEmCentavos) {}
+
+}
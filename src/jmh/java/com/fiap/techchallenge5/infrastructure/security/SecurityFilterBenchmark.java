@@ -0,0 +1,63 @@
+package com.fiap.techchallenge5.infrastructure.security;
+
+import com.fiap.techchallenge5.benchmark.TokensDeBenchmark;
+import com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas;
+import com.fiap.techchallenge5.useCase.token.impl.TokenUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.fiap.techchallenge5.benchmark.TokensDeBenchmark.SEGREDO;
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.URL_CARRINHO;
+
+/**
+ * Autenticação de uma requisição inteira pelo {@link SecurityFilter}, com objetos de servlet de teste.
+ * Fica no pacote do filtro porque o construtor dele não é público.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="SecurityFilterBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    @Param({"valido", "expirado", "malformado"})
+    public String tipoDeToken;
+
+    private SecurityFilter filtro;
+    private String cabecalho;
+    private final FilterChain cadeia = (requisicao, resposta) -> {};
+
+    @Setup
+    public void prepara() {
+        final var registry = new SimpleMeterRegistry();
+        this.filtro = new SecurityFilter(
+                new TokenUseCaseImpl(SEGREDO, 10000, Duration.ofHours(1), registry),
+                new MedidorDeEtapas(registry)
+        );
+        this.cabecalho = "Bearer " + TokensDeBenchmark.token(this.tipoDeToken);
+    }
+
+    @Benchmark
+    public int doFilterInternal() throws Exception {
+        final var requisicao = new MockHttpServletRequest("POST", URL_CARRINHO);
+        requisicao.addHeader("Authorization", this.cabecalho);
+        final var resposta = new MockHttpServletResponse();
+        try {
+            this.filtro.doFilterInternal(requisicao, resposta, this.cadeia);
+            return resposta.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.fiap.techchallenge5.domain;
+
+import java.util.Objects;
+
+public record UsuarioAutenticado(
+        String login,
+        String token
+) {
+
+    public UsuarioAutenticado {
+        if (Objects.isNull(login) || login.isBlank()) {
+            throw new IllegalArgumentException("LOGIN NAO PODE SER NULO OU VAZIO!");
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.consulta;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Cache, por usuário, do carrinho disponível para pagamento já montado, junto com a versão do carrinho
+ * da qual foi montado.
+ * <p>
+ * Antes de servir um carrinho em cache, a versão atual do carrinho aberto é lida do banco (uma consulta pelo
+ * índice do usuário, sem os itens); se outra instância tiver alterado, finalizado ou apagado o carrinho,
+ * a versão não bate e o carrinho é montado de novo. Toda escrita nesta instância também invalida o usuário
+ * na hora e de novo ao fim da transação, para liberar a memória mais cedo.
+ * <p>
+ * A conferência da versão custa uma consulta a cada acerto do cache e pode ser desligada com
+ * {@code api.carrinho.cache.verifica-versao=false} quando só esta instância escreve nos carrinhos:
+ * aí a invalidação local basta e um acerto do cache não vai ao banco.
+ * <p>
+ * O carrinho é montado fora do cache, sem travar outras leituras enquanto o banco responde; duas leituras
+ * concorrentes do mesmo usuário sem cache montam o carrinho duas vezes.
+ */
+@Component
+public class CarrinhoConsulta {
+
+    private final Cache<String, CarrinhoCarregado> carrinhos;
+    private final boolean verificaVersao;
+    private final Counter desatualizados;
+
+    public CarrinhoConsulta(@Value("${api.carrinho.cache.tempo-maximo:PT5M}") final Duration tempoMaximo,
+                            @Value("${api.carrinho.cache.tamanho-maximo:100000}") final long tamanhoMaximo,
+                            @Value("${api.carrinho.cache.verifica-versao:true}") final boolean verificaVersao,
+                            final MeterRegistry registry) {
+        this.verificaVersao = verificaVersao;
+        this.carrinhos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(tempoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, this.carrinhos, "carrinho.disponivel");
+        this.desatualizados = registry.counter("carrinho.disponivel.desatualizados");
+    }
+
+    /**
+     * Carrinhos não encontrados ({@code null}) não ficam em cache.
+     *
+     * @param versaoAtual versão do carrinho aberto no banco, {@code null} se não houver carrinho aberto;
+     *                    não é chamada com a conferência da versão desligada
+     * @param carrega     monta o carrinho com a versão da qual foi montado, {@code null} se não houver carrinho aberto
+     */
+    public CarrinhoDisponivelParaPagamentoDTO pegaDisponivelParaPagamento(final String usuario,
+                                                                          final Function<String, VersaoDoCarrinho> versaoAtual,
+                                                                          final Function<String, CarrinhoCarregado> carrega) {
+        final var emCache = this.carrinhos.getIfPresent(usuario);
+        if(Objects.nonNull(emCache)) {
+            if(!this.verificaVersao || emCache.versao().equals(versaoAtual.apply(usuario))) {
+                return emCache.carrinho();
+            }
+            this.desatualizados.increment();
+            this.carrinhos.asMap().remove(usuario, emCache);
+        }
+
+        final var carregado = carrega.apply(usuario);
+        if(Objects.isNull(carregado)) {
+            return null;
+        }
+        this.carrinhos.put(usuario, carregado);
+        return carregado.carrinho();
+    }
+
+    public void invalida(final String usuario) {
+        this.carrinhos.invalidate(usuario);
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    CarrinhoConsulta.this.carrinhos.invalidate(usuario);
+                }
+            });
+        }
+    }
+
+    public void invalidaTodos() {
+        this.carrinhos.invalidateAll();
+    }
+
+    /**
+     * Carrinho montado e a versão do carrinho aberto lida na mesma consulta.
+     */
+    public record CarrinhoCarregado(VersaoDoCarrinho versao,
+                                    CarrinhoDisponivelParaPagamentoDTO carrinho) {}
+
+}
@@ -0,0 +1,128 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.controller;
+
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
+import com.fiap.techchallenge5.useCase.carrinho.CarrinhoUseCase;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.PROPRIEDADE_MODO;
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.URL_CARRINHO;
+import static com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes.CABECALHO_IDEMPOTENCIA;
+
+/**
+ * Mesmos endpoints do {@link CarrinhoController}, respondendo com {@link CompletableFuture}: a thread do servidor
+ * é liberada enquanto as chamadas remotas e o banco de dados trabalham.
+ */
+@Tag(
+		name = "Itens",
+		description = "Serviço para realizar o gerenciamento do carrinho de compras no sistema"
+)
+@RestController
+@RequestMapping(URL_CARRINHO)
+@ConditionalOnProperty(name = PROPRIEDADE_MODO, havingValue = "async")
+public class CarrinhoAsyncController {
+
+	private final CarrinhoUseCase service;
+	private final RespostasIdempotentes respostasIdempotentes;
+
+	public CarrinhoAsyncController(final CarrinhoUseCase service,
+								   final RespostasIdempotentes respostasIdempotentes) {
+		this.service = service;
+		this.respostasIdempotentes = respostasIdempotentes;
+	}
+
+	@Operation(
+			summary = "Serviço para inserir um item no carrinho. Caso não exista um carrinho, será criado. " +
+					"Com o cabeçalho Idempotency-Key, a repetição da requisição devolve a resposta original"
+	)
+	@PostMapping
+	public CompletableFuture<ResponseEntity<Void>> insere(@RequestBody @Valid final AdicionaItemDTO dadosItem,
+														  @RequestHeader(name = CABECALHO_IDEMPOTENCIA, required = false) final String chaveIdempotencia,
+														  @AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.respostasIdempotentes.executaAsync(usuario.login(), "insere", chaveIdempotencia, dadosItem, () -> this.service
+				.insereAsync(dadosItem, usuario)
+				.thenApply(inseriu -> {
+					if(inseriu) {
+						return ResponseEntity
+								.status(HttpStatus.CREATED)
+								.build();
+					}
+					return ResponseEntity
+							.status(HttpStatus.CONFLICT)
+							.build();
+				}));
+	}
+
+	@Operation(
+			summary = "Serviço para remover um item do carrinho"
+	)
+	@DeleteMapping("/{ean}")
+	public CompletableFuture<ResponseEntity<Void>> remove(@PathVariable("ean") final Long ean,
+														  @AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.service
+				.removeAsync(ean, usuario)
+				.thenApply(removeu -> {
+					if(removeu) {
+						return ResponseEntity
+								.status(HttpStatus.OK)
+								.build();
+					}
+					return ResponseEntity
+							.status(HttpStatus.NO_CONTENT)
+							.build();
+				});
+	}
+
+	@Operation(
+			summary = "Serviço para verificar se o carrinho está disponível para realizar o pagamento"
+	)
+	@GetMapping("/disponivel-para-pagamento")
+	public CompletableFuture<ResponseEntity<CarrinhoDisponivelParaPagamentoDTO>> disponivelParaPagamento(@AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.service
+				.disponivelParaPagamentoAsync(usuario)
+				.thenApply(disponivel -> {
+					if(Objects.nonNull(disponivel)) {
+						return ResponseEntity
+								.status(HttpStatus.OK)
+								.body(disponivel);
+					}
+					return ResponseEntity
+							.status(HttpStatus.NO_CONTENT)
+							.build();
+				});
+	}
+
+	@Operation(
+			summary = "Serviço para realizar o pagamento do carrinho. " +
+					"Com o cabeçalho Idempotency-Key, a repetição da requisição devolve a resposta original"
+	)
+	@PutMapping("/finaliza")
+	public CompletableFuture<ResponseEntity<Void>> finaliza(@RequestHeader(name = CABECALHO_IDEMPOTENCIA, required = false) final String chaveIdempotencia,
+															@AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.respostasIdempotentes.executaAsync(usuario.login(), "finaliza", chaveIdempotencia, null, () -> this.service
+				.finalizaAsync(usuario)
+				.thenApply(finaliza -> {
+					if(finaliza) {
+						return ResponseEntity
+								.status(HttpStatus.OK)
+								.build();
+					}
+					return ResponseEntity
+							.status(HttpStatus.NO_CONTENT)
+							.build();
+				}));
+	}
+
+}
@@ -1,18 +1,24 @@
 package com.fiap.techchallenge5.infrastructure.carrinho.controller;
 
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
 import com.fiap.techchallenge5.useCase.carrinho.CarrinhoUseCase;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Objects;
 
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.PROPRIEDADE_MODO;
 import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.URL_CARRINHO;
+import static com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes.CABECALHO_IDEMPOTENCIA;
 
 @Tag(
 		name = "Itens",
@@ -20,34 +26,46 @@ import static com.fiap.techchallenge5.infrastructure.carrinho.controller.Carrinh
 )
 @RestController
 @RequestMapping(URL_CARRINHO)
+@ConditionalOnProperty(name = PROPRIEDADE_MODO, havingValue = "sync", matchIfMissing = true)
 public class CarrinhoController {
 
+	/**
+	 * {@code sync} (padrão) atende no {@link CarrinhoController}; {@code async} no {@link CarrinhoAsyncController}.
+	 */
+	public static final String PROPRIEDADE_MODO = "api.carrinho.controller.modo";
 	public static final String URL_CARRINHO = "/carrinho";
 	public static final String URL_CARRINHO_COM_EAN = URL_CARRINHO + "/{ean}";
 	public static final String URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO = URL_CARRINHO + "/disponivel-para-pagamento";
 	public static final String URL_CARRINHO_FINALIZA = URL_CARRINHO + "/finaliza";
 
 	private final CarrinhoUseCase service;
+	private final RespostasIdempotentes respostasIdempotentes;
 
-	public CarrinhoController(final CarrinhoUseCase service) {
+	public CarrinhoController(final CarrinhoUseCase service,
+							  final RespostasIdempotentes respostasIdempotentes) {
 		this.service = service;
+		this.respostasIdempotentes = respostasIdempotentes;
 	}
 
 	@Operation(
-			summary = "Serviço para inserir um item no carrinho. Caso não exista um carrinho, será criado"
+			summary = "Serviço para inserir um item no carrinho. Caso não exista um carrinho, será criado. " +
+					"Com o cabeçalho Idempotency-Key, a repetição da requisição devolve a resposta original"
 	)
 	@PostMapping
 	public ResponseEntity<Void> insere(@RequestBody @Valid final AdicionaItemDTO dadosItem,
-									   @RequestHeader("Authorization") final String token) {
-		final var inseriu = this.service.insere(dadosItem, token);
-		if(inseriu) {
+									   @RequestHeader(name = CABECALHO_IDEMPOTENCIA, required = false) final String chaveIdempotencia,
+									   @AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.respostasIdempotentes.executa(usuario.login(), "insere", chaveIdempotencia, dadosItem, () -> {
+			final var inseriu = this.service.insere(dadosItem, usuario);
+			if(inseriu) {
+				return ResponseEntity
+						.status(HttpStatus.CREATED)
+						.build();
+			}
 			return ResponseEntity
-					.status(HttpStatus.CREATED)
+					.status(HttpStatus.CONFLICT)
 					.build();
-		}
-		return ResponseEntity
-				.status(HttpStatus.CONFLICT)
-				.build();
+		});
 	}
 
 	@Operation(
@@ -55,8 +73,8 @@ public class CarrinhoController {
 	)
 	@DeleteMapping("/{ean}")
 	public ResponseEntity<Void> remove(@PathVariable("ean") final Long ean,
-									   @RequestHeader("Authorization") final String token) {
-		final var removeu = this.service.remove(ean, token);
+									   @AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		final var removeu = this.service.remove(ean, usuario);
 		if(removeu) {
 			return ResponseEntity
 					.status(HttpStatus.OK)
@@ -71,8 +89,8 @@ public class CarrinhoController {
 			summary = "Serviço para verificar se o carrinho está disponível para realizar o pagamento"
 	)
 	@GetMapping("/disponivel-para-pagamento")
-	public ResponseEntity<CarrinhoDisponivelParaPagamentoDTO> disponivelParaPagamento(@RequestHeader("Authorization") final String token) {
-		final var disponivel = this.service.disponivelParaPagamento(token);
+	public ResponseEntity<CarrinhoDisponivelParaPagamentoDTO> disponivelParaPagamento(@AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		final var disponivel = this.service.disponivelParaPagamento(usuario);
 		if(Objects.nonNull(disponivel)) {
 			return ResponseEntity
 					.status(HttpStatus.OK)
@@ -84,19 +102,23 @@ public class CarrinhoController {
 	}
 
 	@Operation(
-			summary = "Serviço para realizar o pagamento do carrinho"
+			summary = "Serviço para realizar o pagamento do carrinho. " +
+					"Com o cabeçalho Idempotency-Key, a repetição da requisição devolve a resposta original"
 	)
 	@PutMapping("/finaliza")
-	public ResponseEntity<Void> finaliza(@RequestHeader("Authorization") final String token) {
-		final var finaliza = this.service.finaliza(token);
-		if(finaliza) {
+	public ResponseEntity<Void> finaliza(@RequestHeader(name = CABECALHO_IDEMPOTENCIA, required = false) final String chaveIdempotencia,
+										 @AuthenticationPrincipal final UsuarioAutenticado usuario) {
+		return this.respostasIdempotentes.executa(usuario.login(), "finaliza", chaveIdempotencia, null, () -> {
+			final var finaliza = this.service.finaliza(usuario);
+			if(finaliza) {
+				return ResponseEntity
+						.status(HttpStatus.OK)
+						.build();
+			}
 			return ResponseEntity
-					.status(HttpStatus.OK)
+					.status(HttpStatus.NO_CONTENT)
 					.build();
-		}
-		return ResponseEntity
-				.status(HttpStatus.NO_CONTENT)
-				.build();
+		});
 	}
 
 }
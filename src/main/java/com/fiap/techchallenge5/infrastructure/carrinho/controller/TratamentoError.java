@@ -1,11 +1,14 @@
 package com.fiap.techchallenge5.infrastructure.carrinho.controller;
 
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
+@Slf4j
 public class TratamentoError {
 
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -14,4 +17,14 @@ public class TratamentoError {
 		return ex.getMessage();
 	}
 
+	/**
+	 * Serviço de item ou de usuário fora do ar, respondendo com erro ou estourando o tempo limite.
+	 */
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(FeignException.class)
+	public String trataServicoIndisponivel(FeignException ex) {
+		log.error("Erro ao chamar o serviço remoto", ex);
+		return "SERVICO INDISPONIVEL, TENTE NOVAMENTE MAIS TARDE!";
+	}
+
 }
@@ -0,0 +1,258 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.idempotencia;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.model.RespostaIdempotente;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository;
+import com.fiap.techchallenge5.infrastructure.concorrencia.ChamadaUnica;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static com.fiap.techchallenge5.infrastructure.config.ExecutoresConfig.EXECUTOR_BANCO_DE_DADOS;
+
+/**
+ * Respostas das requisições com o cabeçalho {@code Idempotency-Key}: a repetição de uma requisição
+ * (mesmo usuário, operação, chave e corpo) recebe o status registrado sem executar a operação de novo.
+ * A mesma chave com outro corpo recebe 422.
+ * <p>
+ * Antes de executar, a chave é reservada (em andamento); repetições que chegam enquanto a original
+ * está em andamento aguardam e recebem o mesmo status nesta instância, e recebem 409 em outra instância.
+ * Só respostas de sucesso (2xx) são registradas; uma falha libera a reserva e pode ser repetida com a mesma chave.
+ * O status fica no cache da instância e, com {@code api.carrinho.idempotencia.armazenamento=banco},
+ * também no banco de dados, até o tempo de vida. No fluxo assíncrono o acesso ao banco roda no executor do banco
+ * de dados, fora da thread da requisição.
+ * <p>
+ * O registro no banco é feito depois da transação da operação, não dentro dela: se a instância cair entre as duas,
+ * a chave fica em andamento (409) até o tempo em andamento expirar e, depois dele, a repetição executa a operação
+ * de novo. Nesse intervalo a garantia é de melhor esforço.
+ */
+@Component
+public class RespostasIdempotentes {
+
+    public static final String CABECALHO_IDEMPOTENCIA = "Idempotency-Key";
+    private static final int TAMANHO_MAXIMO_DA_CHAVE = 255;
+
+    private final RespostaIdempotenteRepository repository;
+    private final Executor executorBanco;
+    private final Duration tempoDeVida;
+    private final Duration tempoEmAndamento;
+    private final Cache<String, RespostaIdempotente> respostas;
+    private final ChamadaUnica<String, Integer> chamadas;
+    private final Counter repetidas;
+
+    public RespostasIdempotentes(final RespostaIdempotenteRepository repository,
+                                 @Qualifier(EXECUTOR_BANCO_DE_DADOS) final Executor executorBanco,
+                                 @Value("${api.carrinho.idempotencia.tempo-de-vida:PT24H}") final Duration tempoDeVida,
+                                 @Value("${api.carrinho.idempotencia.tempo-em-andamento:PT1M}") final Duration tempoEmAndamento,
+                                 @Value("${api.carrinho.idempotencia.tamanho-maximo:100000}") final long tamanhoMaximo,
+                                 final MeterRegistry registry) {
+        this.repository = repository;
+        this.executorBanco = executorBanco;
+        this.tempoDeVida = tempoDeVida;
+        this.tempoEmAndamento = tempoEmAndamento;
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(tempoDeVida)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, this.respostas, "carrinho.idempotencia");
+        this.chamadas = new ChamadaUnica<>("idempotencia", registry);
+        this.repetidas = registry.counter("carrinho.idempotencia.repetidas");
+    }
+
+    /**
+     * Sem chave de idempotência a operação é sempre executada.
+     *
+     * @param corpo o que identifica o conteúdo da requisição (o corpo ou os parâmetros), comparado entre as repetições
+     */
+    public ResponseEntity<Void> executa(final String usuario,
+                                        final String operacao,
+                                        final String chaveIdempotencia,
+                                        final Object corpo,
+                                        final Supplier<ResponseEntity<Void>> chamada) {
+        if(Objects.isNull(chaveIdempotencia)) {
+            return chamada.get();
+        }
+
+        final var chave = chave(usuario, operacao, chaveIdempotencia);
+        final var hashDoCorpo = hashDoCorpo(corpo);
+        final var registrada = this.respostaRegistrada(chave);
+        if(registrada.isPresent()) {
+            return ResponseEntity.status(this.statusDaRepeticao(registrada.get(), hashDoCorpo)).build();
+        }
+
+        final var status = this.chamadas.executa(chave + ":" + hashDoCorpo, () -> this.respostaRegistrada(chave)
+                .map(resposta -> this.statusDaRepeticao(resposta, hashDoCorpo))
+                .orElseGet(() -> this.reservaExecutaERegistra(chave, hashDoCorpo, chamada)));
+        return ResponseEntity.status(status).build();
+    }
+
+    public CompletableFuture<ResponseEntity<Void>> executaAsync(final String usuario,
+                                                                final String operacao,
+                                                                final String chaveIdempotencia,
+                                                                final Object corpo,
+                                                                final Supplier<CompletableFuture<ResponseEntity<Void>>> chamada) {
+        if(Objects.isNull(chaveIdempotencia)) {
+            return chamada.get();
+        }
+
+        final var chave = chave(usuario, operacao, chaveIdempotencia);
+        final var hashDoCorpo = hashDoCorpo(corpo);
+        final var emCache = this.respostas.getIfPresent(chave);
+        if(Objects.nonNull(emCache)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(this.statusDaRepeticao(emCache, hashDoCorpo)).build());
+        }
+
+        return CompletableFuture.supplyAsync(() -> this.respostaNoBanco(chave), this.executorBanco)
+                .thenCompose(registrada -> {
+                    if(registrada.isPresent()) {
+                        return CompletableFuture.completedFuture(this.statusDaRepeticao(registrada.get(), hashDoCorpo));
+                    }
+                    // o banco acabou de ser consultado; dentro da chamada única basta o cache, sem nova consulta
+                    return this.chamadas.executaAsync(chave + ":" + hashDoCorpo, () -> Optional.ofNullable(this.respostas.getIfPresent(chave))
+                            .map(resposta -> CompletableFuture.completedFuture(this.statusDaRepeticao(resposta, hashDoCorpo)))
+                            .orElseGet(() -> CompletableFuture.supplyAsync(() -> this.reserva(chave, hashDoCorpo), this.executorBanco)
+                                    .thenCompose(reservada -> reservada
+                                            ? this.executaERegistraAsync(chave, hashDoCorpo, chamada)
+                                            : CompletableFuture.supplyAsync(() -> this.statusReservadoPorOutra(chave, hashDoCorpo), this.executorBanco))));
+                })
+                .thenApply(status -> ResponseEntity.status(status).build());
+    }
+
+    public void invalidaTodos() {
+        this.respostas.invalidateAll();
+    }
+
+    private Optional<RespostaIdempotente> respostaRegistrada(final String chave) {
+        final var emCache = this.respostas.getIfPresent(chave);
+        if(Objects.nonNull(emCache)) {
+            return Optional.of(emCache);
+        }
+        return this.respostaNoBanco(chave);
+    }
+
+    /**
+     * Só respostas concluídas vão para o cache; uma chave em andamento é consultada de novo no banco.
+     */
+    private Optional<RespostaIdempotente> respostaNoBanco(final String chave) {
+        final var noBanco = this.repository.busca(chave);
+        noBanco.filter(resposta -> !resposta.emAndamento())
+                .ifPresent(resposta -> this.respostas.put(chave, resposta));
+        return noBanco;
+    }
+
+    private int statusDaRepeticao(final RespostaIdempotente registrada,
+                                  final String hashDoCorpo) {
+        if(registrada.emAndamento()) {
+            return HttpStatus.CONFLICT.value();
+        }
+        if(!registrada.mesmoCorpo(hashDoCorpo)) {
+            return HttpStatus.UNPROCESSABLE_ENTITY.value();
+        }
+        this.repetidas.increment();
+        return registrada.status();
+    }
+
+    private boolean reserva(final String chave,
+                            final String hashDoCorpo) {
+        return this.repository.reserva(chave, hashDoCorpo, LocalDateTime.now().plus(this.tempoEmAndamento));
+    }
+
+    /**
+     * Outra instância reservou a chave entre a consulta e a reserva; se ela já tiver sumido (falhou e foi liberada),
+     * a requisição é tratada como ainda em andamento e pode ser repetida.
+     */
+    private int statusReservadoPorOutra(final String chave,
+                                        final String hashDoCorpo) {
+        return this.respostaNoBanco(chave)
+                .map(resposta -> this.statusDaRepeticao(resposta, hashDoCorpo))
+                .orElse(HttpStatus.CONFLICT.value());
+    }
+
+    private Integer reservaExecutaERegistra(final String chave,
+                                            final String hashDoCorpo,
+                                            final Supplier<ResponseEntity<Void>> chamada) {
+        if(!this.reserva(chave, hashDoCorpo)) {
+            return this.statusReservadoPorOutra(chave, hashDoCorpo);
+        }
+
+        final ResponseEntity<Void> resposta;
+        try {
+            resposta = chamada.get();
+        } catch (RuntimeException e) {
+            this.repository.libera(chave);
+            throw e;
+        }
+        return this.registra(chave, hashDoCorpo, resposta);
+    }
+
+    private CompletableFuture<Integer> executaERegistraAsync(final String chave,
+                                                             final String hashDoCorpo,
+                                                             final Supplier<CompletableFuture<ResponseEntity<Void>>> chamada) {
+        final CompletableFuture<ResponseEntity<Void>> resposta;
+        try {
+            resposta = chamada.get();
+        } catch (RuntimeException e) {
+            this.repository.libera(chave);
+            throw e;
+        }
+        return resposta
+                .whenComplete((concluida, erro) -> {
+                    if(Objects.nonNull(erro)) {
+                        this.repository.libera(chave);
+                    }
+                })
+                .thenApply(concluida -> this.registra(chave, hashDoCorpo, concluida));
+    }
+
+    private static String chave(final String usuario,
+                                final String operacao,
+                                final String chaveIdempotencia) {
+        if(chaveIdempotencia.isBlank() || chaveIdempotencia.length() > TAMANHO_MAXIMO_DA_CHAVE) {
+            throw new IllegalArgumentException("IDEMPOTENCY-KEY DEVE TER DE 1 A " + TAMANHO_MAXIMO_DA_CHAVE + " CARACTERES!");
+        }
+        return operacao + ":" + usuario + ":" + chaveIdempotencia;
+    }
+
+    private static String hashDoCorpo(final Object corpo) {
+        try {
+            final var hash = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(corpo).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Integer registra(final String chave,
+                             final String hashDoCorpo,
+                             final ResponseEntity<Void> resposta) {
+        final var status = resposta.getStatusCode().value();
+        if(resposta.getStatusCode().is2xxSuccessful()) {
+            this.respostas.put(chave, new RespostaIdempotente(status, hashDoCorpo));
+            this.repository.salvaStatus(chave, hashDoCorpo, status, LocalDateTime.now().plus(this.tempoDeVida));
+        } else {
+            this.repository.libera(chave);
+        }
+        return status;
+    }
+
+}
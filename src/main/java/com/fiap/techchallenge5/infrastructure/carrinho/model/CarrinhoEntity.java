@@ -19,12 +19,15 @@ import java.time.LocalDateTime;
 public class CarrinhoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sq_carrinho")
+    @SequenceGenerator(name = "sq_carrinho", sequenceName = "sq_carrinho", allocationSize = 50)
     private Long id;
     private String usuario;
     @Enumerated(EnumType.STRING)
     private StatusEnum status;
     private BigDecimal valorTotal;
     private LocalDateTime dataDeCriacao;
+    @Version
+    private Long versao;
 
 }
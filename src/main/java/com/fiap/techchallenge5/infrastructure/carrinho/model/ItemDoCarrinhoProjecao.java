@@ -0,0 +1,18 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha da consulta do carrinho aberto: um item com o valor total e a versão do carrinho ao qual pertence.
+ */
+public record ItemDoCarrinhoProjecao(Long idCarrinho,
+                                     Long versaoDoCarrinho,
+                                     BigDecimal valorTotalDoCarrinho,
+                                     Long ean,
+                                     BigDecimal precoTotal) {
+
+    public VersaoDoCarrinho versao() {
+        return new VersaoDoCarrinho(this.idCarrinho, this.versaoDoCarrinho);
+    }
+
+}
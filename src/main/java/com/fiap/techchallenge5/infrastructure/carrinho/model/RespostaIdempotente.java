@@ -0,0 +1,23 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.model;
+
+import java.util.Objects;
+
+/**
+ * Resposta registrada para uma {@code Idempotency-Key}, com o hash do corpo da requisição original;
+ * sem status enquanto a requisição original está em andamento.
+ */
+public record RespostaIdempotente(Integer status,
+                                  String hashDoCorpo) {
+
+    public boolean emAndamento() {
+        return Objects.isNull(this.status);
+    }
+
+    /**
+     * Respostas registradas antes do hash do corpo valem para qualquer corpo.
+     */
+    public boolean mesmoCorpo(final String hashDoCorpo) {
+        return Objects.isNull(this.hashDoCorpo) || this.hashDoCorpo.equals(hashDoCorpo);
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.model;
+
+/**
+ * Identificação e versão do carrinho aberto; muda a cada escrita no carrinho e quando ele é trocado por outro.
+ */
+public record VersaoDoCarrinho(Long idCarrinho,
+                               Long versao) {}
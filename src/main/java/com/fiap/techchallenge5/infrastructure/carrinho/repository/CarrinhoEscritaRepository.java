@@ -0,0 +1,31 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Escrita dos itens no carrinho aberto do usuário, mantendo o valor total do carrinho atualizado.
+ * <p>
+ * A implementação é escolhida pela propriedade {@code api.carrinho.escrita.modo}:
+ * {@code jpa} (padrão) usa os repositórios JPA e {@code sql} faz cada alteração em poucos comandos SQL.
+ */
+public interface CarrinhoEscritaRepository {
+
+    String PROPRIEDADE_MODO = "api.carrinho.escrita.modo";
+
+    /**
+     * Adiciona o item ao carrinho aberto do usuário, substituindo o item com o mesmo EAN,
+     * e cria o carrinho se o usuário ainda não tiver um aberto.
+     */
+    void adicionaItem(final String usuario,
+                      final Long ean,
+                      final BigDecimal precoTotalItem);
+
+    /**
+     * Remove o item do carrinho aberto do usuário, apagando o carrinho quando ele fica vazio.
+     *
+     * @return false se o usuário não tiver carrinho aberto ou o item não estiver no carrinho
+     */
+    boolean removeItem(final String usuario,
+                       final Long ean);
+
+}
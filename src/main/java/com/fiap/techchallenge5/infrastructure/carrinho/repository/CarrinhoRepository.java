@@ -2,8 +2,13 @@ package com.fiap.techchallenge5.infrastructure.carrinho.repository;
 
 import com.fiap.techchallenge5.domain.StatusEnum;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItemDoCarrinhoProjecao;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CarrinhoRepository extends JpaRepository<CarrinhoEntity, Long> {
@@ -11,4 +16,25 @@ public interface CarrinhoRepository extends JpaRepository<CarrinhoEntity, Long>
     Optional<CarrinhoEntity> findByUsuarioAndStatus(final String token,
                                                     final StatusEnum status);
 
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.fiap.techchallenge5.infrastructure.carrinho.model.ItemDoCarrinhoProjecao(
+                c.id, c.versao, c.valorTotal, i.id.ean, i.precoTotal
+            )
+            FROM CarrinhoEntity c
+            JOIN ItensNoCarrinhoEntity i ON i.id.idCarrinho = c.id
+            WHERE c.usuario = :usuario AND c.status = :status
+            """)
+    List<ItemDoCarrinhoProjecao> findItensByUsuarioAndStatus(final String usuario,
+                                                              final StatusEnum status);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho(c.id, c.versao)
+            FROM CarrinhoEntity c
+            WHERE c.usuario = :usuario AND c.status = :status
+            """)
+    Optional<VersaoDoCarrinho> findVersaoByUsuarioAndStatus(final String usuario,
+                                                            final StatusEnum status);
+
 }
@@ -10,4 +10,6 @@ public interface ItensNoCarrinhoRepository extends JpaRepository<ItensNoCarrinho
 
     List<ItensNoCarrinhoEntity> findByIdIdCarrinho(final Long idCarrinho);
 
+    boolean existsByIdIdCarrinho(final Long idCarrinho);
+
 }
@@ -0,0 +1,44 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.model.RespostaIdempotente;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Respostas já dadas a requisições com {@code Idempotency-Key}, compartilhadas entre as instâncias.
+ * <p>
+ * A implementação é escolhida pela propriedade {@code api.carrinho.idempotencia.armazenamento}:
+ * {@code banco} (padrão) guarda as respostas na tabela {@code tb_resposta_idempotente}
+ * e {@code instancia} não guarda nada fora do cache de cada instância.
+ */
+public interface RespostaIdempotenteRepository {
+
+    String PROPRIEDADE_ARMAZENAMENTO = "api.carrinho.idempotencia.armazenamento";
+
+    /**
+     * @return a resposta registrada para a chave (sem status se a original ainda estiver em andamento),
+     * se ela ainda não tiver expirado
+     */
+    Optional<RespostaIdempotente> busca(final String chave);
+
+    /**
+     * Marca a requisição como em andamento antes de executá-la.
+     *
+     * @return {@code false} se a chave já estiver em andamento ou respondida e ainda não tiver expirado
+     */
+    boolean reserva(final String chave,
+                    final String hashDoCorpo,
+                    final LocalDateTime expiraEm);
+
+    void salvaStatus(final String chave,
+                     final String hashDoCorpo,
+                     final int status,
+                     final LocalDateTime expiraEm);
+
+    /**
+     * Desfaz a reserva de uma requisição que não teve sucesso, para que ela possa ser repetida com a mesma chave.
+     */
+    void libera(final String chave);
+
+}
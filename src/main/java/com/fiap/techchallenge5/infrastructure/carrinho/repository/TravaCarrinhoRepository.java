@@ -0,0 +1,22 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository;
+
+/**
+ * Trava do carrinho do usuário compartilhada entre as instâncias do serviço, presa à transação atual.
+ * <p>
+ * A implementação é escolhida pela propriedade {@code api.carrinho.escrita.trava}:
+ * {@code banco} (padrão) trava o carrinho no banco de dados até o fim da transação
+ * e {@code instancia} não trava no banco, só a trava de cada instância protege o carrinho.
+ */
+@FunctionalInterface
+public interface TravaCarrinhoRepository {
+
+    String PROPRIEDADE_TRAVA = "api.carrinho.escrita.trava";
+
+    /**
+     * Espera até obter a trava do carrinho do usuário; ela é liberada no commit ou rollback da transação atual.
+     *
+     * @throws org.springframework.dao.PessimisticLockingFailureException se a espera máxima se esgotar
+     */
+    void trava(final String usuario);
+
+}
@@ -0,0 +1,134 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository.PROPRIEDADE_MODO;
+
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_MODO, havingValue = "jpa", matchIfMissing = true)
+@Slf4j
+public class CarrinhoEscritaJpaRepository implements CarrinhoEscritaRepository {
+
+    private final CarrinhoRepository repositoryCarrinho;
+    private final ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+    private final EntityManager entityManager;
+
+    public CarrinhoEscritaJpaRepository(final CarrinhoRepository repositoryCarrinho,
+                                        final ItensNoCarrinhoRepository repositoryItensNoCarrinho,
+                                        final EntityManager entityManager) {
+        this.repositoryCarrinho = repositoryCarrinho;
+        this.repositoryItensNoCarrinho = repositoryItensNoCarrinho;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void adicionaItem(final String usuario,
+                             final Long ean,
+                             final BigDecimal precoTotalItem) {
+        final var carrinho = this.repositoryCarrinho
+                .findByUsuarioAndStatus(usuario, StatusEnum.ABERTO);
+        if(carrinho.isEmpty()) {
+            final var carrinhoEntity = CarrinhoEntity.builder()
+                    .usuario(usuario)
+                    .status(StatusEnum.ABERTO)
+                    .dataDeCriacao(LocalDateTime.now())
+                    .valorTotal(precoTotalItem)
+                    .build();
+            final var carrinhoSalvo = this.repositoryCarrinho.save(carrinhoEntity);
+
+            final var itemEntity = ItensNoCarrinhoEntity.builder()
+                    .id(ItensNoCarrinhoId
+                            .builder()
+                            .idCarrinho(carrinhoSalvo.getId())
+                            .ean(ean).build()
+                    )
+                    .precoTotal(precoTotalItem)
+                    .build();
+            this.repositoryItensNoCarrinho.save(itemEntity);
+            return;
+        }
+
+        final var carrinhoExistente = carrinho.get();
+
+        final var idItem = ItensNoCarrinhoId
+                .builder()
+                .idCarrinho(carrinhoExistente.getId())
+                .ean(ean).build();
+        final var valorAnteriorItem = this.repositoryItensNoCarrinho.findById(idItem)
+                .map(ItensNoCarrinhoEntity::getPrecoTotal)
+                .orElse(BigDecimal.ZERO);
+
+        final var itemEntity = ItensNoCarrinhoEntity.builder()
+                .id(idItem)
+                .precoTotal(precoTotalItem)
+                .build();
+        this.repositoryItensNoCarrinho.save(itemEntity);
+
+        this.atualizaValorTotal(carrinhoExistente, carrinhoExistente.getValorTotal()
+                .subtract(valorAnteriorItem)
+                .add(precoTotalItem));
+    }
+
+    @Override
+    public boolean removeItem(final String usuario,
+                              final Long ean) {
+        final var carrinho = this.repositoryCarrinho
+                .findByUsuarioAndStatus(usuario, StatusEnum.ABERTO);
+        if(carrinho.isEmpty()) {
+            log.error("Carrinho não encontrado");
+            return false;
+        }
+
+        final var carrinhoExistente = carrinho.get();
+
+        final var itemNoCarrinho = this.repositoryItensNoCarrinho.findById(
+                ItensNoCarrinhoId
+                        .builder()
+                        .idCarrinho(carrinhoExistente.getId())
+                        .ean(ean).build()
+        );
+        if(itemNoCarrinho.isEmpty()) {
+            log.error("Item não encontrado no carrinho");
+            return false;
+        }
+
+        this.repositoryItensNoCarrinho.delete(itemNoCarrinho.get());
+
+        if(this.repositoryItensNoCarrinho.existsByIdIdCarrinho(carrinhoExistente.getId())) {
+            this.atualizaValorTotal(carrinhoExistente,
+                    carrinhoExistente.getValorTotal().subtract(itemNoCarrinho.get().getPrecoTotal()));
+            return true;
+        }
+        log.info("Carrinho zerado");
+        this.repositoryCarrinho.delete(carrinhoExistente);
+        return true;
+    }
+
+    /**
+     * Com o valor total igual (item de preço zero) o Hibernate não altera o carrinho, mas os itens mudaram:
+     * a versão sobe mesmo assim, porque é ela que o cache do carrinho disponível para pagamento compara.
+     */
+    private void atualizaValorTotal(final CarrinhoEntity carrinho,
+                                    final BigDecimal valorTotal) {
+        if(carrinho.getValorTotal().compareTo(valorTotal) == 0) {
+            this.entityManager.lock(carrinho, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+        carrinho.setValorTotal(valorTotal);
+        this.repositoryCarrinho.save(carrinho);
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository.PROPRIEDADE_MODO;
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository.PROPRIEDADE_TRAVA;
+
+/**
+ * Escrita do carrinho direto em SQL: cada alteração de um carrinho existente custa dois comandos,
+ * o upsert/delete do item (que devolve o preço anterior) e o ajuste do valor total pela diferença.
+ * <p>
+ * Os comandos do item usam {@code ON CONFLICT}/{@code RETURNING} no PostgreSQL e os equivalentes do H2
+ * ({@code MERGE} dentro de {@code OLD TABLE}), usado nos testes.
+ * <p>
+ * O preço anterior é lido na foto do banco do início do comando: se outra transação alterar o mesmo item
+ * ao mesmo tempo, a diferença sai errada. Por isso a inserção só roda depois de esperar as outras escritas
+ * do carrinho em um comando anterior da transação: com {@code api.carrinho.escrita.trava=banco} a trava
+ * do carrinho no banco já faz isso; sem ela o carrinho aberto é travado com {@code SELECT ... FOR UPDATE}
+ * (um comando a mais), já que a trava de cada instância não protege de escritas de outras instâncias.
+ */
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_MODO, havingValue = "sql")
+@Slf4j
+public class CarrinhoEscritaSqlRepository implements CarrinhoEscritaRepository {
+
+    private static final String CARRINHO_ABERTO_DO_USUARIO = """
+            SELECT id FROM tb_carrinho WHERE usuario = :usuario AND status = :status
+            """;
+
+    private static final Comandos POSTGRES = new Comandos(
+            """
+            WITH carrinho AS (%s),
+            anterior AS (
+                SELECT i.preco_total FROM tb_itens_no_carrinho i
+                JOIN carrinho c ON c.id = i.id_carrinho
+                WHERE i.ean = :ean
+            )
+            INSERT INTO tb_itens_no_carrinho (id_carrinho, ean, preco_total)
+            SELECT id, :ean, :precoTotal FROM carrinho
+            ON CONFLICT (id_carrinho, ean) DO UPDATE SET preco_total = EXCLUDED.preco_total
+            RETURNING (SELECT preco_total FROM anterior) AS preco_total
+            """.formatted(CARRINHO_ABERTO_DO_USUARIO),
+            """
+            DELETE FROM tb_itens_no_carrinho
+            WHERE ean = :ean AND id_carrinho = (%s)
+            RETURNING id_carrinho, preco_total
+            """.formatted(CARRINHO_ABERTO_DO_USUARIO)
+    );
+
+    private static final Comandos H2 = new Comandos(
+            """
+            SELECT preco_total FROM OLD TABLE (
+                MERGE INTO tb_itens_no_carrinho i
+                USING (%s) c
+                ON i.id_carrinho = c.id AND i.ean = :ean
+                WHEN MATCHED THEN UPDATE SET preco_total = :precoTotal
+                WHEN NOT MATCHED THEN INSERT (id_carrinho, ean, preco_total) VALUES (c.id, :ean, :precoTotal)
+            )
+            """.formatted(CARRINHO_ABERTO_DO_USUARIO),
+            """
+            SELECT id_carrinho, preco_total FROM OLD TABLE (
+                DELETE FROM tb_itens_no_carrinho
+                WHERE ean = :ean AND id_carrinho = (%s)
+            )
+            """.formatted(CARRINHO_ABERTO_DO_USUARIO)
+    );
+
+    private static final String TRAVA_CARRINHO_ABERTO_DO_USUARIO = CARRINHO_ABERTO_DO_USUARIO.strip() + " FOR UPDATE";
+
+    private static final String AJUSTA_VALOR_TOTAL_DO_USUARIO = """
+            UPDATE tb_carrinho SET valor_total = valor_total + :diferenca, versao = versao + 1
+            WHERE usuario = :usuario AND status = :status
+            """;
+
+    private static final String SUBTRAI_VALOR_TOTAL_SE_TIVER_ITENS = """
+            UPDATE tb_carrinho SET valor_total = valor_total - :precoTotal, versao = versao + 1
+            WHERE id = :idCarrinho
+            AND EXISTS (SELECT 1 FROM tb_itens_no_carrinho WHERE id_carrinho = :idCarrinho)
+            """;
+
+    private static final String APAGA_CARRINHO = """
+            DELETE FROM tb_carrinho WHERE id = :idCarrinho
+            """;
+
+    /**
+     * O id sai da mesma sequência usada pelo JPA; cada chamada reserva um bloco inteiro,
+     * então os ids nunca colidem com os gerados pelo Hibernate.
+     */
+    private static final String INSERE_CARRINHO = """
+            INSERT INTO tb_carrinho (id, usuario, status, valor_total, data_de_criacao)
+            VALUES (nextval('sq_carrinho'), :usuario, :status, :precoTotal, :dataDeCriacao)
+            """;
+
+    private static final String INSERE_ITEM = """
+            INSERT INTO tb_itens_no_carrinho (id_carrinho, ean, preco_total)
+            VALUES (:idCarrinho, :ean, :precoTotal)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Comandos comandos;
+    private final boolean travaLinhaDoCarrinho;
+
+    public CarrinhoEscritaSqlRepository(final NamedParameterJdbcTemplate jdbc,
+                                        final DataSource dataSource,
+                                        @Value("${" + PROPRIEDADE_TRAVA + ":banco}") final String trava) {
+        this.jdbc = jdbc;
+        this.comandos = comandosDoBanco(dataSource);
+        this.travaLinhaDoCarrinho = !"banco".equals(trava);
+    }
+
+    @Override
+    public void adicionaItem(final String usuario,
+                             final Long ean,
+                             final BigDecimal precoTotalItem) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("usuario", usuario)
+                .addValue("status", StatusEnum.ABERTO.name())
+                .addValue("ean", ean)
+                .addValue("precoTotal", precoTotalItem);
+
+        if(this.travaLinhaDoCarrinho) {
+            this.jdbc.query(TRAVA_CARRINHO_ABERTO_DO_USUARIO, parametros, resultado -> {});
+        }
+        final var valorAnteriorItem = this.jdbc.queryForList(this.comandos.adicionaItem(), parametros, BigDecimal.class)
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(BigDecimal.ZERO);
+
+        parametros.addValue("diferenca", precoTotalItem.subtract(valorAnteriorItem));
+        if(this.jdbc.update(AJUSTA_VALOR_TOTAL_DO_USUARIO, parametros) > 0) {
+            return;
+        }
+
+        final var idCarrinho = new GeneratedKeyHolder();
+        this.jdbc.update(
+                INSERE_CARRINHO,
+                parametros.addValue("dataDeCriacao", LocalDateTime.now()),
+                idCarrinho,
+                new String[]{"id"}
+        );
+        this.jdbc.update(INSERE_ITEM, parametros.addValue("idCarrinho", idCarrinho.getKeyAs(Long.class)));
+    }
+
+    @Override
+    public boolean removeItem(final String usuario,
+                              final Long ean) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("usuario", usuario)
+                .addValue("status", StatusEnum.ABERTO.name())
+                .addValue("ean", ean);
+
+        final var itemRemovido = this.jdbc.queryForList(this.comandos.removeItem(), parametros);
+        if(itemRemovido.isEmpty()) {
+            log.error("Item não encontrado no carrinho");
+            return false;
+        }
+
+        parametros
+                .addValue("idCarrinho", itemRemovido.get(0).get("id_carrinho"))
+                .addValue("precoTotal", itemRemovido.get(0).get("preco_total"));
+        if(this.jdbc.update(SUBTRAI_VALOR_TOTAL_SE_TIVER_ITENS, parametros) > 0) {
+            return true;
+        }
+        log.info("Carrinho zerado");
+        this.jdbc.update(APAGA_CARRINHO, parametros);
+        return true;
+    }
+
+    private static Comandos comandosDoBanco(final DataSource dataSource) {
+        final String banco;
+        try {
+            banco = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("NAO FOI POSSIVEL IDENTIFICAR O BANCO DE DADOS!", e);
+        }
+        return switch (banco) {
+            case "PostgreSQL" -> POSTGRES;
+            case "H2" -> H2;
+            default -> throw new IllegalStateException("BANCO DE DADOS SEM SUPORTE NA ESCRITA SQL: " + banco);
+        };
+    }
+
+    private record Comandos(String adicionaItem, String removeItem) {}
+
+}
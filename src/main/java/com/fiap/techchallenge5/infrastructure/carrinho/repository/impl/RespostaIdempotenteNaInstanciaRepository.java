@@ -0,0 +1,43 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.model.RespostaIdempotente;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository.PROPRIEDADE_ARMAZENAMENTO;
+
+/**
+ * Sem armazenamento compartilhado: só a instância que respondeu reconhece a repetição da requisição.
+ */
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_ARMAZENAMENTO, havingValue = "instancia")
+public class RespostaIdempotenteNaInstanciaRepository implements RespostaIdempotenteRepository {
+
+    @Override
+    public Optional<RespostaIdempotente> busca(final String chave) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean reserva(final String chave,
+                           final String hashDoCorpo,
+                           final LocalDateTime expiraEm) {
+        return true;
+    }
+
+    @Override
+    public void salvaStatus(final String chave,
+                            final String hashDoCorpo,
+                            final int status,
+                            final LocalDateTime expiraEm) {
+    }
+
+    @Override
+    public void libera(final String chave) {
+    }
+
+}
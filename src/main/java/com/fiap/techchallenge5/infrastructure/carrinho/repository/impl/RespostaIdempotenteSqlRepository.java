@@ -0,0 +1,155 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.model.RespostaIdempotente;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository.PROPRIEDADE_ARMAZENAMENTO;
+
+/**
+ * Respostas idempotentes na tabela {@code tb_resposta_idempotente}, para que a repetição de uma requisição
+ * seja reconhecida mesmo chegando em outra instância. A reserva insere a linha sem status e só sobrescreve
+ * uma linha expirada, então duas instâncias não executam a mesma requisição ao mesmo tempo.
+ * As linhas expiradas são apagadas periodicamente.
+ */
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_ARMAZENAMENTO, havingValue = "banco", matchIfMissing = true)
+@Slf4j
+public class RespostaIdempotenteSqlRepository implements RespostaIdempotenteRepository {
+
+    private static final String BUSCA = """
+            SELECT status, hash_do_corpo FROM tb_resposta_idempotente WHERE chave = :chave AND expira_em > :agora
+            """;
+
+    private static final Comandos POSTGRES = new Comandos(
+            """
+            INSERT INTO tb_resposta_idempotente (chave, hash_do_corpo, status, expira_em)
+            VALUES (:chave, :hashDoCorpo, NULL, :expiraEm)
+            ON CONFLICT (chave) DO UPDATE SET hash_do_corpo = EXCLUDED.hash_do_corpo, status = NULL, expira_em = EXCLUDED.expira_em
+            WHERE tb_resposta_idempotente.expira_em <= :agora
+            """,
+            """
+            INSERT INTO tb_resposta_idempotente (chave, hash_do_corpo, status, expira_em)
+            VALUES (:chave, :hashDoCorpo, :status, :expiraEm)
+            ON CONFLICT (chave) DO UPDATE SET hash_do_corpo = EXCLUDED.hash_do_corpo, status = EXCLUDED.status, expira_em = EXCLUDED.expira_em
+            """
+    );
+
+    private static final Comandos H2 = new Comandos(
+            """
+            MERGE INTO tb_resposta_idempotente r
+            USING (VALUES (CAST(:chave AS VARCHAR(600)))) n (chave) ON r.chave = n.chave
+            WHEN MATCHED AND r.expira_em <= :agora THEN
+                UPDATE SET hash_do_corpo = :hashDoCorpo, status = NULL, expira_em = :expiraEm
+            WHEN NOT MATCHED THEN
+                INSERT (chave, hash_do_corpo, status, expira_em) VALUES (:chave, :hashDoCorpo, NULL, :expiraEm)
+            """,
+            """
+            MERGE INTO tb_resposta_idempotente (chave, hash_do_corpo, status, expira_em) KEY (chave)
+            VALUES (:chave, :hashDoCorpo, :status, :expiraEm)
+            """
+    );
+
+    private static final String LIBERA = """
+            DELETE FROM tb_resposta_idempotente WHERE chave = :chave AND status IS NULL
+            """;
+
+    private static final String APAGA_EXPIRADAS = """
+            DELETE FROM tb_resposta_idempotente WHERE expira_em <= :agora
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Comandos comandos;
+
+    public RespostaIdempotenteSqlRepository(final NamedParameterJdbcTemplate jdbc,
+                                            final DataSource dataSource) {
+        this.jdbc = jdbc;
+        this.comandos = comandosDoBanco(dataSource);
+    }
+
+    @Override
+    public Optional<RespostaIdempotente> busca(final String chave) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("chave", chave)
+                .addValue("agora", LocalDateTime.now());
+        return this.jdbc.query(BUSCA, parametros, (linha, numero) -> new RespostaIdempotente(
+                        (Integer) linha.getObject("status"),
+                        linha.getString("hash_do_corpo")
+                ))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public boolean reserva(final String chave,
+                           final String hashDoCorpo,
+                           final LocalDateTime expiraEm) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("chave", chave)
+                .addValue("hashDoCorpo", hashDoCorpo)
+                .addValue("expiraEm", expiraEm)
+                .addValue("agora", LocalDateTime.now());
+        try {
+            return this.jdbc.update(this.comandos.reserva(), parametros) > 0;
+        } catch (DuplicateKeyException e) {
+            // outra instância inseriu a mesma chave entre a verificação e a inserção do MERGE
+            return false;
+        }
+    }
+
+    @Override
+    public void salvaStatus(final String chave,
+                            final String hashDoCorpo,
+                            final int status,
+                            final LocalDateTime expiraEm) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("chave", chave)
+                .addValue("hashDoCorpo", hashDoCorpo)
+                .addValue("status", status)
+                .addValue("expiraEm", expiraEm);
+        this.jdbc.update(this.comandos.salvaStatus(), parametros);
+    }
+
+    @Override
+    public void libera(final String chave) {
+        this.jdbc.update(LIBERA, new MapSqlParameterSource("chave", chave));
+    }
+
+    @Scheduled(fixedDelayString = "${api.carrinho.idempotencia.intervalo-de-limpeza:PT10M}")
+    public void apagaExpiradas() {
+        final var apagadas = this.jdbc.update(APAGA_EXPIRADAS, new MapSqlParameterSource("agora", LocalDateTime.now()));
+        if(apagadas > 0) {
+            log.info("{} respostas idempotentes expiradas apagadas", apagadas);
+        }
+    }
+
+    private static Comandos comandosDoBanco(final DataSource dataSource) {
+        final String banco;
+        try {
+            banco = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("NAO FOI POSSIVEL IDENTIFICAR O BANCO DE DADOS!", e);
+        }
+        return switch (banco) {
+            case "PostgreSQL" -> POSTGRES;
+            case "H2" -> H2;
+            default -> throw new IllegalStateException("BANCO DE DADOS SEM SUPORTE NAS RESPOSTAS IDEMPOTENTES: " + banco);
+        };
+    }
+
+    private record Comandos(String reserva, String salvaStatus) {}
+
+}
@@ -0,0 +1,21 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository.PROPRIEDADE_TRAVA;
+
+/**
+ * Sem trava no banco: com uma única instância a trava por usuário da própria instância já serializa
+ * as alterações do carrinho, e entre instâncias resta o lock otimista com retentativa.
+ */
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_TRAVA, havingValue = "instancia")
+public class TravaCarrinhoNaInstanciaRepository implements TravaCarrinhoRepository {
+
+    @Override
+    public void trava(final String usuario) {
+    }
+
+}
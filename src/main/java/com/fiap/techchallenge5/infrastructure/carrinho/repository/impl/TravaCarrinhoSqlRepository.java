@@ -0,0 +1,98 @@
+package com.fiap.techchallenge5.infrastructure.carrinho.repository.impl;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository.PROPRIEDADE_TRAVA;
+
+/**
+ * Trava do carrinho no banco de dados, para serializar as alterações do mesmo usuário entre instâncias.
+ * <p>
+ * No PostgreSQL usa {@code pg_advisory_xact_lock} com o hash do usuário, no mesmo comando que limita
+ * a espera da transação ({@code lock_timeout} local) à espera máxima da trava do carrinho, a mesma
+ * da trava da instância. O H2, usado nos testes, não tem advisory lock: o usuário é mapeado para uma
+ * das linhas fixas de {@code tb_trava_carrinho}, travada com {@code SELECT ... FOR UPDATE}, e a espera
+ * é limitada pelo {@code LOCK_TIMEOUT} do próprio H2. Nos dois casos a trava é liberada no fim da transação,
+ * o tempo de espera é publicado em {@code trava.espera} com {@code trava=carrinho.banco} e as esperas
+ * esgotadas em {@code trava.espera.esgotada}.
+ */
+@Repository
+@ConditionalOnProperty(name = PROPRIEDADE_TRAVA, havingValue = "banco", matchIfMissing = true)
+public class TravaCarrinhoSqlRepository implements TravaCarrinhoRepository {
+
+    private static final String POSTGRES = """
+            SELECT set_config('lock_timeout', :esperaMaxima, true), pg_advisory_xact_lock(hashtext(:usuario))
+            """;
+
+    /**
+     * Mesma quantidade de linhas criadas em tb_trava_carrinho pela migração do H2.
+     */
+    private static final int LINHAS_DE_TRAVA_H2 = 1024;
+
+    private static final String H2 = """
+            SELECT id FROM tb_trava_carrinho WHERE id = MOD(:hash, %d) FOR UPDATE
+            """.formatted(LINHAS_DE_TRAVA_H2);
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final String comando;
+    private final String esperaMaxima;
+    private final Timer espera;
+    private final Counter esperaEsgotada;
+
+    public TravaCarrinhoSqlRepository(final NamedParameterJdbcTemplate jdbc,
+                                      final DataSource dataSource,
+                                      @Value("${api.carrinho.escrita.espera-maxima-trava:PT5S}") final Duration esperaMaxima,
+                                      final MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.comando = comandoDoBanco(dataSource);
+        this.esperaMaxima = String.valueOf(Math.max(1, esperaMaxima.toMillis()));
+        this.espera = Timer.builder("trava.espera")
+                .tag("trava", "carrinho.banco")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.esperaEsgotada = registry.counter("trava.espera.esgotada", "trava", "carrinho.banco");
+    }
+
+    @Override
+    public void trava(final String usuario) {
+        final var parametros = new MapSqlParameterSource()
+                .addValue("usuario", usuario)
+                .addValue("hash", Math.abs((long) usuario.hashCode()))
+                .addValue("esperaMaxima", this.esperaMaxima);
+        try {
+            this.espera.record(() -> this.jdbc.query(this.comando, parametros, resultado -> {}));
+        } catch (PessimisticLockingFailureException e) {
+            this.esperaEsgotada.increment();
+            throw e;
+        }
+    }
+
+    private static String comandoDoBanco(final DataSource dataSource) {
+        final String banco;
+        try {
+            banco = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("NAO FOI POSSIVEL IDENTIFICAR O BANCO DE DADOS!", e);
+        }
+        return switch (banco) {
+            case "PostgreSQL" -> POSTGRES;
+            case "H2" -> H2;
+            default -> throw new IllegalStateException("BANCO DE DADOS SEM SUPORTE NA TRAVA DO CARRINHO: " + banco);
+        };
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.fiap.techchallenge5.infrastructure.concorrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas concorrentes com a mesma chave: enquanto uma chamada está em andamento,
+ * as demais aguardam e recebem o mesmo resultado (ou a mesma exceção) em vez de repetir a chamada remota.
+ */
+public class ChamadaUnica<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter executadas;
+    private final Counter agrupadas;
+
+    public ChamadaUnica(final String nome,
+                        final MeterRegistry registry) {
+        this.executadas = registry.counter("chamadas.remotas.executadas", "chamada", nome);
+        this.agrupadas = registry.counter("chamadas.remotas.agrupadas", "chamada", nome);
+    }
+
+    public V executa(final K chave,
+                     final Supplier<V> chamada) {
+        final var nova = new CompletableFuture<V>();
+        final var existente = this.emAndamento.putIfAbsent(chave, nova);
+        if(Objects.nonNull(existente)) {
+            this.agrupadas.increment();
+            return this.aguarda(existente);
+        }
+
+        this.executadas.increment();
+        try {
+            final var resultado = chamada.get();
+            nova.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.emAndamento.remove(chave, nova);
+        }
+    }
+
+    /**
+     * Versão assíncrona: enquanto o futuro da primeira chamada não termina, as chamadas com a mesma chave
+     * recebem o mesmo resultado sem começar outra.
+     */
+    public CompletableFuture<V> executaAsync(final K chave,
+                                             final Supplier<CompletableFuture<V>> chamada) {
+        final var nova = new CompletableFuture<V>();
+        final var existente = this.emAndamento.putIfAbsent(chave, nova);
+        if(Objects.nonNull(existente)) {
+            this.agrupadas.increment();
+            return existente.copy();
+        }
+
+        this.executadas.increment();
+        final CompletableFuture<V> resultado;
+        try {
+            resultado = chamada.get();
+        } catch (RuntimeException | Error e) {
+            this.emAndamento.remove(chave, nova);
+            nova.completeExceptionally(e);
+            throw e;
+        }
+        resultado.whenComplete((valor, erro) -> {
+            this.emAndamento.remove(chave, nova);
+            if(Objects.nonNull(erro)) {
+                nova.completeExceptionally(erro);
+            } else {
+                nova.complete(valor);
+            }
+        });
+        return nova.copy();
+    }
+
+    private V aguarda(final CompletableFuture<V> emAndamento) {
+        try {
+            return emAndamento.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if(e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+}
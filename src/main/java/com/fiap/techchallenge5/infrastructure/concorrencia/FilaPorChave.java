@@ -0,0 +1,70 @@
+package com.fiap.techchallenge5.infrastructure.concorrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Encadeia, dentro desta instância, as ações assíncronas com a mesma chave: cada ação roda no executor
+ * quando a anterior com a mesma chave termina, sem ocupar uma thread enquanto espera a vez.
+ * Ações com chaves diferentes não esperam umas pelas outras.
+ * <p>
+ * Como na {@link TravaPorChave}, uma ação que esperou mais que a espera máxima não roda e o resultado é false;
+ * o tempo de espera é publicado em {@code trava.espera}.
+ */
+@Slf4j
+public class FilaPorChave<K> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<Void>> ultimas = new ConcurrentHashMap<>();
+    private final Duration esperaMaxima;
+    private final Timer espera;
+    private final Counter esperaEsgotada;
+
+    public FilaPorChave(final String nome,
+                        final Duration esperaMaxima,
+                        final MeterRegistry registry) {
+        this.esperaMaxima = esperaMaxima;
+        this.espera = Timer.builder("trava.espera")
+                .tag("trava", nome)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.esperaEsgotada = registry.counter("trava.espera.esgotada", "trava", nome);
+    }
+
+    public CompletableFuture<Boolean> executa(final K chave,
+                                              final Executor executor,
+                                              final BooleanSupplier acao) {
+        final var inicio = System.nanoTime();
+        final var vez = new CompletableFuture<Void>();
+        final var anterior = this.ultimas.put(chave, vez);
+        return (Objects.isNull(anterior) ? CompletableFuture.<Void>completedFuture(null) : anterior)
+                .thenApplyAsync(liberada -> this.executaNaVez(chave, inicio, acao), executor)
+                .whenComplete((resultado, erro) -> {
+                    this.ultimas.remove(chave, vez);
+                    vez.complete(null);
+                });
+    }
+
+    private boolean executaNaVez(final K chave,
+                                 final long inicio,
+                                 final BooleanSupplier acao) {
+        final var esperou = System.nanoTime() - inicio;
+        this.espera.record(esperou, TimeUnit.NANOSECONDS);
+        if(esperou > this.esperaMaxima.toNanos()) {
+            this.esperaEsgotada.increment();
+            log.warn("Espera pela vez na fila esgotada para a chave {}", chave);
+            return false;
+        }
+        return acao.getAsBoolean();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.fiap.techchallenge5.infrastructure.concorrencia;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Serializa, dentro desta instância, as ações com a mesma chave usando um conjunto fixo de travas:
+ * ações com a mesma chave nunca rodam juntas e ações com chaves de travas diferentes rodam em paralelo.
+ * <p>
+ * O tempo de espera pela trava é publicado em {@code trava.espera}.
+ */
+@Slf4j
+public class TravaPorChave<K> {
+
+    private final ReentrantLock[] travas;
+    private final Duration esperaMaxima;
+    private final Timer espera;
+    private final Counter esperaEsgotada;
+
+    public TravaPorChave(final String nome,
+                         final int quantidadeDeTravas,
+                         final Duration esperaMaxima,
+                         final MeterRegistry registry) {
+        if(quantidadeDeTravas < 1) {
+            throw new IllegalArgumentException("QUANTIDADE DE TRAVAS DEVE SER MAIOR QUE ZERO!");
+        }
+        this.travas = new ReentrantLock[quantidadeDeTravas];
+        for (int i = 0; i < this.travas.length; i++) {
+            this.travas[i] = new ReentrantLock();
+        }
+        this.esperaMaxima = esperaMaxima;
+        this.espera = Timer.builder("trava.espera")
+                .tag("trava", nome)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.esperaEsgotada = registry.counter("trava.espera.esgotada", "trava", nome);
+    }
+
+    /**
+     * @return o resultado da ação, ou false se a trava não foi obtida dentro da espera máxima
+     */
+    public boolean executa(final K chave,
+                           final BooleanSupplier acao) {
+        final var trava = this.travas[this.indice(chave)];
+        final var inicio = System.nanoTime();
+        try {
+            if(!trava.tryLock(this.esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                this.esperaEsgotada.increment();
+                log.warn("Espera pela trava esgotada para a chave {}", chave);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            return acao.getAsBoolean();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private int indice(final K chave) {
+        final var hash = chave.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), this.travas.length);
+    }
+
+}
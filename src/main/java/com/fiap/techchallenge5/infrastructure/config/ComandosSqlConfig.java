@@ -0,0 +1,37 @@
+package com.fiap.techchallenge5.infrastructure.config;
+
+import com.fiap.techchallenge5.infrastructure.metricas.ContadorDeComandosSql;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ComandosSqlConfig {
+
+    /**
+     * Envolve o {@link DataSource} num proxy que conta cada comando em {@link ContadorDeComandosSql}.
+     */
+    @Bean
+    public static BeanPostProcessor contadorDeComandosSql(final ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean,
+                                                         final String nome) {
+                if(bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(nome)
+                            .listener(new ContadorDeComandosSql(registry))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+}
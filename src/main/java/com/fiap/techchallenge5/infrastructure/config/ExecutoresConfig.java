@@ -0,0 +1,72 @@
+package com.fiap.techchallenge5.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Com {@code spring.threads.virtual.enabled=true} (Java 21) o Tomcat e as chamadas remotas rodam em threads virtuais;
+ * caso contrário as chamadas remotas usam um pool fixo de threads de plataforma.
+ */
+@Configuration
+public class ExecutoresConfig {
+
+    public static final String EXECUTOR_CHAMADAS_REMOTAS = "executorChamadasRemotas";
+    public static final String EXECUTOR_BANCO_DE_DADOS = "executorBancoDeDados";
+
+    /**
+     * Por padrão do tamanho do pool do Tomcat: no modo síncrono cada requisição ocupa no máximo uma thread daqui,
+     * então as buscas não fazem fila atrás umas das outras. No modo assíncrono uma inserção ocupa duas threads
+     * e as demais operações uma, e é este pool (e não o do Tomcat) que limita as chamadas simultâneas por instância.
+     * As threads ociosas são encerradas; com a fila cheia a chamada roda na thread que a submeteu.
+     */
+    @Bean(EXECUTOR_CHAMADAS_REMOTAS)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor executorChamadasRemotas(@Value("${api.executor.chamadas-remotas.threads:${server.tomcat.threads.max:200}}") final int threads,
+                                                          @Value("${api.executor.chamadas-remotas.fila:500}") final int fila) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("chamada-remota-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(fila);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Uma thread virtual por chamada; o limite de concorrência faz o papel do pool e da fila,
+     * segurando quem submete a chamada quando o limite é atingido.
+     */
+    @Bean(EXECUTOR_CHAMADAS_REMOTAS)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor executorChamadasRemotasVirtuais(@Value("${api.executor.chamadas-remotas.concorrencia-virtual:2000}") final int concorrencia) {
+        final var executor = new SimpleAsyncTaskExecutor("chamada-remota-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concorrencia);
+        return executor;
+    }
+
+    /**
+     * Acesso ao banco de dados dos endpoints assíncronos, do tamanho do pool de conexões.
+     * Com a fila cheia a tarefa roda na thread que a submeteu, em vez de se perder.
+     */
+    @Bean(EXECUTOR_BANCO_DE_DADOS)
+    public ThreadPoolTaskExecutor executorBancoDeDados(@Value("${api.executor.banco-de-dados.threads:10}") final int threads,
+                                                       @Value("${api.executor.banco-de-dados.fila:1000}") final int fila) {
+        final var executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("banco-de-dados-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.fiap.techchallenge5.infrastructure.config;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.FilaPorChave;
+import com.fiap.techchallenge5.infrastructure.concorrencia.TravaPorChave;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class TravasConfig {
+
+    public static final String TRAVA_CARRINHO = "travaCarrinho";
+    public static final String FILA_CARRINHO = "filaCarrinho";
+
+    @Bean(TRAVA_CARRINHO)
+    public TravaPorChave<String> travaCarrinho(@Value("${api.carrinho.escrita.travas:1024}") final int travas,
+                                               @Value("${api.carrinho.escrita.espera-maxima-trava:PT5S}") final Duration esperaMaxima,
+                                               final MeterRegistry registry) {
+        return new TravaPorChave<>("carrinho", travas, esperaMaxima, registry);
+    }
+
+    /**
+     * Vez de cada usuário nas escritas dos endpoints assíncronos, com a mesma espera máxima da trava do carrinho.
+     */
+    @Bean(FILA_CARRINHO)
+    public FilaPorChave<String> filaCarrinho(@Value("${api.carrinho.escrita.espera-maxima-trava:PT5S}") final Duration esperaMaxima,
+                                             final MeterRegistry registry) {
+        return new FilaPorChave<>("carrinho.fila", esperaMaxima, registry);
+    }
+
+}
@@ -6,7 +6,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "item", url = "http://172.17.0.1:8081/item")
+@FeignClient(name = "item", url = "${api.item.url:http://172.17.0.1:8081/item}")
 public interface ItemClient {
 
     @GetMapping(value = "/{ean}")
@@ -0,0 +1,141 @@
+package com.fiap.techchallenge5.infrastructure.item.consulta;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.ChamadaUnica;
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.fiap.techchallenge5.infrastructure.config.ExecutoresConfig.EXECUTOR_CHAMADAS_REMOTAS;
+
+/**
+ * Cache local dos itens (preço por EAN) na frente do {@link ItemClient}.
+ * <p>
+ * Depois do tempo de vida o preço em cache continua sendo servido enquanto uma atualização roda em segundo plano,
+ * até o tempo máximo obsoleto. Preços que vão para o valor do carrinho usam uma idade máxima própria de checkout.
+ * Buscas concorrentes do mesmo EAN compartilham uma única chamada ao serviço de itens.
+ */
+@Component
+@Slf4j
+public class ItemConsulta {
+
+    private final ItemClient clientItem;
+    private final Executor executor;
+    private final Duration tempoDeVida;
+    private final Duration tempoMaximoObsoleto;
+    private final Duration idadeMaximaCheckout;
+    private final Cache<Long, ItemEmCache> itens;
+    private final ChamadaUnica<Long, ItemDTO> chamadas;
+    private final Set<Long> atualizacoesEmAndamento = ConcurrentHashMap.newKeySet();
+    private final Counter obsoletosServidos;
+    private final Counter atualizacoesEmSegundoPlano;
+
+    public ItemConsulta(final ItemClient clientItem,
+                        @Qualifier(EXECUTOR_CHAMADAS_REMOTAS) final Executor executor,
+                        @Value("${api.item.cache.tempo-de-vida:PT1M}") final Duration tempoDeVida,
+                        @Value("${api.item.cache.tempo-maximo-obsoleto:PT10M}") final Duration tempoMaximoObsoleto,
+                        @Value("${api.item.cache.idade-maxima-checkout:PT2M}") final Duration idadeMaximaCheckout,
+                        @Value("${api.item.cache.tamanho-maximo:50000}") final long tamanhoMaximo,
+                        final MeterRegistry registry) {
+        this.clientItem = clientItem;
+        this.executor = executor;
+        this.tempoDeVida = tempoDeVida;
+        this.tempoMaximoObsoleto = tempoMaximoObsoleto;
+        this.idadeMaximaCheckout = idadeMaximaCheckout;
+        this.itens = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(tempoMaximoObsoleto)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, this.itens, "item.preco");
+        this.chamadas = new ChamadaUnica<>("item", registry);
+        this.obsoletosServidos = registry.counter("item.preco.obsoletos.servidos");
+        this.atualizacoesEmSegundoPlano = registry.counter("item.preco.atualizacoes.segundo.plano");
+    }
+
+    public ItemDTO pegaItem(final Long ean,
+                            final String token) {
+        return this.pegaItem(ean, token, this.tempoMaximoObsoleto);
+    }
+
+    public ItemDTO pegaItemParaCheckout(final Long ean,
+                                        final String token) {
+        return this.pegaItem(ean, token, this.idadeMaximaCheckout);
+    }
+
+    public void invalidaTodos() {
+        this.itens.invalidateAll();
+    }
+
+    /**
+     * Só devolve o item em cache se ele tiver sido carregado há menos de {@code idadeMaxima};
+     * caso contrário busca no serviço de itens antes de responder.
+     */
+    private ItemDTO pegaItem(final Long ean,
+                             final String token,
+                             final Duration idadeMaxima) {
+        final var emCache = this.itens.getIfPresent(ean);
+        if(Objects.nonNull(emCache)) {
+            final var idade = Duration.between(emCache.carregadoEm(), Instant.now());
+            if(idade.compareTo(idadeMaxima) < 0) {
+                if(idade.compareTo(this.tempoDeVida) >= 0) {
+                    this.obsoletosServidos.increment();
+                    this.atualizaEmSegundoPlano(ean, token);
+                }
+                return emCache.item();
+            }
+        }
+        return this.carrega(ean, token);
+    }
+
+    private ItemDTO carrega(final Long ean,
+                            final String token) {
+        final var item = this.chamadas.executa(ean, () -> this.clientItem.pegaItem(ean, token));
+        if(Objects.isNull(item)) {
+            this.itens.invalidate(ean);
+            return null;
+        }
+        this.itens.put(ean, new ItemEmCache(item, Instant.now()));
+        return item;
+    }
+
+    private void atualizaEmSegundoPlano(final Long ean,
+                                        final String token) {
+        if(!this.atualizacoesEmAndamento.add(ean)) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    this.carrega(ean, token);
+                    this.atualizacoesEmSegundoPlano.increment();
+                } catch (Exception e) {
+                    log.warn("Erro ao atualizar o item {} em segundo plano", ean, e);
+                } finally {
+                    this.atualizacoesEmAndamento.remove(ean);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.atualizacoesEmAndamento.remove(ean);
+            log.warn("Atualização do item {} descartada, executor cheio", ean);
+        }
+    }
+
+    private record ItemEmCache(ItemDTO item, Instant carregadoEm) {}
+
+}
@@ -0,0 +1,59 @@
+package com.fiap.techchallenge5.infrastructure.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Conta os comandos enviados ao banco de dados no contador {@code jdbc.comandos}, com a tag {@code tipo}
+ * (select, insert, update, delete ou other). Um lote de um mesmo comando preparado conta como um.
+ * <p>
+ * O {@link MeterRegistry} só é buscado no primeiro comando, porque o {@code DataSource} é criado antes dele.
+ */
+public class ContadorDeComandosSql implements QueryExecutionListener {
+
+    public static final String METRICA_COMANDOS = "jdbc.comandos";
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private volatile Meter.MeterProvider<Counter> comandos;
+
+    public ContadorDeComandosSql(final ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(final ExecutionInfo execucao,
+                            final List<QueryInfo> comandos) {
+    }
+
+    @Override
+    public void afterQuery(final ExecutionInfo execucao,
+                           final List<QueryInfo> comandos) {
+        final var contador = this.comandos();
+        for (final var comando : comandos) {
+            contador.withTag("tipo", QueryUtils.getQueryType(comando.getQuery()).name().toLowerCase(Locale.ROOT))
+                    .increment();
+        }
+    }
+
+    private Meter.MeterProvider<Counter> comandos() {
+        var comandos = this.comandos;
+        if(Objects.isNull(comandos)) {
+            comandos = Counter.builder(METRICA_COMANDOS)
+                    .description("Comandos enviados ao banco de dados")
+                    .withRegistry(this.registry.getObject());
+            this.comandos = comandos;
+        }
+        return comandos;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.fiap.techchallenge5.infrastructure.metricas;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Tempo de cada etapa das operações do carrinho no timer {@code carrinho.etapa}, com as tags
+ * {@code operacao}, {@code etapa} e {@code resultado}, publicado com histograma para os percentis.
+ * <p>
+ * O resultado é {@code sucesso}, {@code sem_resultado} (a etapa devolveu nulo ou {@code false}) ou {@code erro}.
+ */
+@Component
+public class MedidorDeEtapas {
+
+    public static final String METRICA_ETAPA = "carrinho.etapa";
+    public static final String SUCESSO = "sucesso";
+    public static final String SEM_RESULTADO = "sem_resultado";
+    public static final String ERRO = "erro";
+
+    private final Meter.MeterProvider<Timer> etapas;
+
+    public MedidorDeEtapas(final MeterRegistry registry) {
+        this.etapas = Timer.builder(METRICA_ETAPA)
+                .description("Tempo de cada etapa das operações do carrinho")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+    }
+
+    public <T> T mede(final String operacao,
+                      final String etapa,
+                      final Supplier<T> chamada) {
+        final var inicio = System.nanoTime();
+        var resultado = ERRO;
+        try {
+            final var valor = chamada.get();
+            resultado = resultado(valor);
+            return valor;
+        } finally {
+            this.registra(operacao, etapa, resultado, inicio);
+        }
+    }
+
+    /**
+     * Como {@link #mede}, mas a etapa termina quando o {@link CompletableFuture} devolvido completa.
+     */
+    public <T> CompletableFuture<T> medeAsync(final String operacao,
+                                              final String etapa,
+                                              final Supplier<CompletableFuture<T>> chamada) {
+        final var inicio = System.nanoTime();
+        final CompletableFuture<T> futuro;
+        try {
+            futuro = chamada.get();
+        } catch (RuntimeException | Error e) {
+            this.registra(operacao, etapa, ERRO, inicio);
+            throw e;
+        }
+        return futuro.whenComplete((valor, erro) ->
+                this.registra(operacao, etapa, Objects.nonNull(erro) ? ERRO : resultado(valor), inicio));
+    }
+
+    private void registra(final String operacao,
+                          final String etapa,
+                          final String resultado,
+                          final long inicio) {
+        this.etapas
+                .withTags("operacao", operacao, "etapa", etapa, "resultado", resultado)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    private static String resultado(final Object valor) {
+        return Objects.isNull(valor) || Boolean.FALSE.equals(valor) ? SEM_RESULTADO : SUCESSO;
+    }
+
+}
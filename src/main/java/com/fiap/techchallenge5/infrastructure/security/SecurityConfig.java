@@ -1,5 +1,6 @@
 package com.fiap.techchallenge5.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -16,6 +17,9 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.*;
+import static com.fiap.techchallenge5.infrastructure.security.SecurityFilter.URL_ACTUATOR_HEALTH;
+import static com.fiap.techchallenge5.infrastructure.security.SecurityFilter.URL_ACTUATOR_PROMETHEUS;
+import static com.fiap.techchallenge5.infrastructure.usuario.controller.UsuarioCacheController.URL_USUARIO_CACHE_COM_LOGIN;
 
 @Configuration
 @EnableWebSecurity
@@ -33,11 +37,15 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sessao -> sessao.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
+                        // a resposta dos endpoints assíncronos volta num novo dispatch, sem o JWT da requisição já autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, URL_CARRINHO).hasAnyRole("ADMIN","USER")
                         .requestMatchers(HttpMethod.DELETE, URL_CARRINHO_COM_EAN).hasAnyRole("ADMIN","USER")
                         .requestMatchers(HttpMethod.GET, URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO).hasAnyRole("ADMIN","USER")
                         .requestMatchers(HttpMethod.PUT, URL_CARRINHO_FINALIZA).hasAnyRole("ADMIN","USER")
+                        .requestMatchers(HttpMethod.DELETE, URL_USUARIO_CACHE_COM_LOGIN).hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/swagger-ui.html").permitAll()
+                        .requestMatchers(HttpMethod.GET, URL_ACTUATOR_HEALTH, URL_ACTUATOR_HEALTH + "/**", URL_ACTUATOR_PROMETHEUS).permitAll()
                         .anyRequest().authenticated())
                 .addFilterBefore(this.securityFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
@@ -1,5 +1,7 @@
 package com.fiap.techchallenge5.infrastructure.security;
 
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas;
 import com.fiap.techchallenge5.useCase.token.TokenUseCase;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -16,28 +18,38 @@ import java.util.Objects;
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
+    // coletados pelo Prometheus e pelo health check do orquestrador, que não têm o JWT de um usuário
+    static final String URL_ACTUATOR_HEALTH = "/actuator/health";
+    static final String URL_ACTUATOR_PROMETHEUS = "/actuator/prometheus";
+
     final TokenUseCase service;
+    final MedidorDeEtapas medidor;
 
-    SecurityFilter(final TokenUseCase service){
+    SecurityFilter(final TokenUseCase service,
+                   final MedidorDeEtapas medidor){
         this.service = service;
+        this.medidor = medidor;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        if(request.getRequestURI().contains("swagger") || request.getRequestURI().contains("api-docs")){
+        final var uri = request.getRequestURI();
+        if(uri.contains("swagger") || uri.contains("api-docs") || this.actuatorSemToken(uri)){
             filterChain.doFilter(request, response);
             return;
         }
 
-        final var token = this.recuperaToken(request);
-        if(Objects.nonNull(token)){
-            final var jwt = this.service.pegaJwt(token);
-            if(Objects.nonNull(jwt)){
+        final var tokenNoHeader = request.getHeader("Authorization");
+        if(Objects.nonNull(tokenNoHeader)){
+            final var jwt = this.medidor.mede("autenticacao", "token",
+                    () -> this.service.pegaJwt(tokenNoHeader.replace("Bearer ", "")));
+            final var usuario = Objects.nonNull(jwt) ? this.service.pegaUsuario(jwt) : null;
+            if(Objects.nonNull(usuario) && !usuario.isBlank()){
 
                 final var authentication = new UsernamePasswordAuthenticationToken(
-                        this.service.pegaUsuario(jwt),
+                        new UsuarioAutenticado(usuario, tokenNoHeader),
                         null,
                         this.service.pegaPermissoes(jwt)
                 );
@@ -60,12 +72,10 @@ public class SecurityFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String recuperaToken(final HttpServletRequest request){
-        final var tokenNoHeader = request.getHeader("Authorization");
-        if(Objects.nonNull(tokenNoHeader)) {
-            return tokenNoHeader.replace("Bearer ", "");
-        }
-        return null;
+    private boolean actuatorSemToken(final String uri) {
+        return uri.equals(URL_ACTUATOR_PROMETHEUS)
+                || uri.equals(URL_ACTUATOR_HEALTH)
+                || uri.startsWith(URL_ACTUATOR_HEALTH + "/");
     }
 
 }
\ No newline at end of file
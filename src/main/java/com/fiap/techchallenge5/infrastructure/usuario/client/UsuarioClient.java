@@ -5,7 +5,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
 
-@FeignClient(name = "usuario", url = "http://172.17.0.1:8080/usuario")
+@FeignClient(name = "usuario", url = "${api.usuario.url:http://172.17.0.1:8080/usuario}")
 public interface UsuarioClient {
 
     @GetMapping(value = "/{login}")
@@ -0,0 +1,85 @@
+package com.fiap.techchallenge5.infrastructure.usuario.consulta;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.ChamadaUnica;
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Cache da existência dos usuários na frente do {@link UsuarioClient}.
+ * <p>
+ * Usuários encontrados ficam em cache por mais tempo; usuários inexistentes ficam por pouco tempo,
+ * para que um cadastro recente passe a ser aceito logo.
+ */
+@Component
+public class UsuarioConsulta {
+
+    private final UsuarioClient clientUsuario;
+    private final ChamadaUnica<String, Boolean> chamadas;
+    private final Cache<String, Boolean> usuarios;
+
+    public UsuarioConsulta(final UsuarioClient clientUsuario,
+                           @Value("${api.usuario.cache.tempo-existente:PT30M}") final Duration tempoExistente,
+                           @Value("${api.usuario.cache.tempo-inexistente:PT30S}") final Duration tempoInexistente,
+                           @Value("${api.usuario.cache.tamanho-maximo:100000}") final long tamanhoMaximo,
+                           final MeterRegistry registry) {
+        this.clientUsuario = clientUsuario;
+        this.chamadas = new ChamadaUnica<>("usuario", registry);
+        this.usuarios = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiraPorResultado(tempoExistente, tempoInexistente))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, this.usuarios, "usuario.existe");
+    }
+
+    public Boolean usuarioExiste(final String login,
+                                 final String token) {
+        final var emCache = this.usuarios.getIfPresent(login);
+        if(Objects.nonNull(emCache)) {
+            return emCache;
+        }
+
+        final var existe = this.chamadas.executa(login, () -> this.clientUsuario.usuarioExiste(login, token));
+        if(Objects.nonNull(existe)) {
+            this.usuarios.put(login, existe);
+        }
+        return existe;
+    }
+
+    public void invalida(final String login) {
+        this.usuarios.invalidate(login);
+    }
+
+    public void invalidaTodos() {
+        this.usuarios.invalidateAll();
+    }
+
+    private record ExpiraPorResultado(Duration tempoExistente,
+                                      Duration tempoInexistente) implements Expiry<String, Boolean> {
+
+        @Override
+        public long expireAfterCreate(String login, Boolean existe, long tempoAtual) {
+            return existe ? this.tempoExistente.toNanos() : this.tempoInexistente.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String login, Boolean existe, long tempoAtual, long duracaoAtual) {
+            return this.expireAfterCreate(login, existe, tempoAtual);
+        }
+
+        @Override
+        public long expireAfterRead(String login, Boolean existe, long tempoAtual, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+
+}
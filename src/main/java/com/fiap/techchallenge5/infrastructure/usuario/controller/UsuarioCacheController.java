@@ -0,0 +1,40 @@
+package com.fiap.techchallenge5.infrastructure.usuario.controller;
+
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static com.fiap.techchallenge5.infrastructure.usuario.controller.UsuarioCacheController.URL_USUARIO_CACHE;
+
+@Tag(
+		name = "Cache de usuários",
+		description = "Serviço para invalidar a existência de usuários guardada em cache"
+)
+@RestController
+@RequestMapping(URL_USUARIO_CACHE)
+public class UsuarioCacheController {
+
+	public static final String URL_USUARIO_CACHE = "/usuario-cache";
+	public static final String URL_USUARIO_CACHE_COM_LOGIN = URL_USUARIO_CACHE + "/{login}";
+
+	private final UsuarioConsulta consultaUsuario;
+
+	public UsuarioCacheController(final UsuarioConsulta consultaUsuario) {
+		this.consultaUsuario = consultaUsuario;
+	}
+
+	@Operation(
+			summary = "Serviço para invalidar o cache de existência de um usuário"
+	)
+	@DeleteMapping("/{login}")
+	public ResponseEntity<Void> invalida(@PathVariable("login") final String login) {
+		this.consultaUsuario.invalida(login);
+		return ResponseEntity
+				.status(HttpStatus.NO_CONTENT)
+				.build();
+	}
+
+}
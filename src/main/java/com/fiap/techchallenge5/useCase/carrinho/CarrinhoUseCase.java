@@ -1,17 +1,34 @@
 package com.fiap.techchallenge5.useCase.carrinho;
 
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface CarrinhoUseCase {
 
     boolean insere(final AdicionaItemDTO dadosItem,
-                   final String token);
+                   final UsuarioAutenticado usuario);
 
     boolean remove(final Long ean,
-                   final String token);
+                   final UsuarioAutenticado usuario);
+
+    CarrinhoDisponivelParaPagamentoDTO disponivelParaPagamento(final UsuarioAutenticado usuario);
+
+    boolean finaliza(final UsuarioAutenticado usuario);
+
+    /**
+     * Mesmas operações sem prender a thread que chamou: as chamadas remotas rodam no executor de chamadas remotas
+     * e o acesso ao banco no executor do banco de dados.
+     */
+    CompletableFuture<Boolean> insereAsync(final AdicionaItemDTO dadosItem,
+                                           final UsuarioAutenticado usuario);
+
+    CompletableFuture<Boolean> removeAsync(final Long ean,
+                                           final UsuarioAutenticado usuario);
 
-    CarrinhoDisponivelParaPagamentoDTO disponivelParaPagamento(final String token);
+    CompletableFuture<CarrinhoDisponivelParaPagamentoDTO> disponivelParaPagamentoAsync(final UsuarioAutenticado usuario);
 
-    boolean finaliza(final String token);
+    CompletableFuture<Boolean> finalizaAsync(final UsuarioAutenticado usuario);
 }
@@ -3,215 +3,427 @@ package com.fiap.techchallenge5.useCase.carrinho.impl;
 import com.fiap.techchallenge5.domain.Ean;
 import com.fiap.techchallenge5.domain.Item;
 import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.ItensDoCarrinhoDTO;
-import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
-import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
-import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository;
 import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
-import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
-import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
-import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.concorrencia.FilaPorChave;
+import com.fiap.techchallenge5.infrastructure.concorrencia.TravaPorChave;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
 import com.fiap.techchallenge5.useCase.carrinho.CarrinhoUseCase;
-import com.fiap.techchallenge5.useCase.token.TokenUseCase;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static com.fiap.techchallenge5.infrastructure.config.ExecutoresConfig.EXECUTOR_BANCO_DE_DADOS;
+import static com.fiap.techchallenge5.infrastructure.config.ExecutoresConfig.EXECUTOR_CHAMADAS_REMOTAS;
+import static com.fiap.techchallenge5.infrastructure.config.TravasConfig.FILA_CARRINHO;
+import static com.fiap.techchallenge5.infrastructure.config.TravasConfig.TRAVA_CARRINHO;
 
 
 @Service
 @Slf4j
 public class CarrinhoUseCaseImpl implements CarrinhoUseCase {
 
-    private final ItemClient clientItem;
-    private final UsuarioClient clientUsuario;
-    private final CarrinhoRepository repositoryCarrinho;
-    private final ItensNoCarrinhoRepository repositoryItensNoCarrinho;
-    private final TokenUseCase serviceToken;
+    private static final String INSERE = "insere";
+    private static final String REMOVE = "remove";
+    private static final String DISPONIVEL_PARA_PAGAMENTO = "disponivel_para_pagamento";
+    private static final String FINALIZA = "finaliza";
+    private static final String VIOLACAO_DE_UNICIDADE = "23505";
+    private static final String INDICE_CARRINHO_ABERTO = "ux_carrinho_usuario_aberto";
 
-    public CarrinhoUseCaseImpl(final ItemClient clientItem,
-                               final UsuarioClient clientUsuario,
+    private final ItemConsulta consultaItem;
+    private final UsuarioConsulta consultaUsuario;
+    private final CarrinhoRepository repositoryCarrinho;
+    private final CarrinhoEscritaRepository repositoryEscrita;
+    private final TravaCarrinhoRepository travaCarrinhoNoBanco;
+    private final CarrinhoConsulta consultaCarrinho;
+    private final TransactionOperations transacao;
+    private final int tentativasEmConflito;
+    private final Duration esperaEntreTentativas;
+    private final TravaPorChave<String> travaCarrinho;
+    private final FilaPorChave<String> filaCarrinho;
+    private final Executor executor;
+    private final Executor executorBanco;
+    private final MedidorDeEtapas medidor;
+
+    public CarrinhoUseCaseImpl(final ItemConsulta consultaItem,
+                               final UsuarioConsulta consultaUsuario,
                                final CarrinhoRepository repositoryCarrinho,
-                               final ItensNoCarrinhoRepository repositoryItensNoCarrinho,
-                               final TokenUseCase serviceToken) {
-        this.clientItem = clientItem;
-        this.clientUsuario = clientUsuario;
+                               final CarrinhoEscritaRepository repositoryEscrita,
+                               final TravaCarrinhoRepository travaCarrinhoNoBanco,
+                               final CarrinhoConsulta consultaCarrinho,
+                               final TransactionOperations transacao,
+                               @Value("${api.carrinho.escrita.tentativas:5}") final int tentativasEmConflito,
+                               @Value("${api.carrinho.escrita.espera-entre-tentativas:PT0.01S}") final Duration esperaEntreTentativas,
+                               @Qualifier(TRAVA_CARRINHO) final TravaPorChave<String> travaCarrinho,
+                               @Qualifier(FILA_CARRINHO) final FilaPorChave<String> filaCarrinho,
+                               @Qualifier(EXECUTOR_CHAMADAS_REMOTAS) final Executor executor,
+                               @Qualifier(EXECUTOR_BANCO_DE_DADOS) final Executor executorBanco,
+                               final MedidorDeEtapas medidor) {
+        this.consultaItem = consultaItem;
+        this.consultaUsuario = consultaUsuario;
         this.repositoryCarrinho = repositoryCarrinho;
-        this.repositoryItensNoCarrinho = repositoryItensNoCarrinho;
-        this.serviceToken = serviceToken;
+        this.repositoryEscrita = repositoryEscrita;
+        this.travaCarrinhoNoBanco = travaCarrinhoNoBanco;
+        this.consultaCarrinho = consultaCarrinho;
+        this.transacao = transacao;
+        this.tentativasEmConflito = tentativasEmConflito;
+        this.esperaEntreTentativas = esperaEntreTentativas;
+        this.travaCarrinho = travaCarrinho;
+        this.filaCarrinho = filaCarrinho;
+        this.executor = executor;
+        this.executorBanco = executorBanco;
+        this.medidor = medidor;
     }
 
 
     @Override
-    @Transactional
     public boolean insere(final AdicionaItemDTO dadosItem,
-                          final String token) {
+                          final UsuarioAutenticado usuarioAutenticado) {
         final var validaItem = new Item(
                 dadosItem.ean(),
                 dadosItem.quantidade()
         );
 
-        final var item = this.clientItem.pegaItem(validaItem.ean(), token);
-        if(Objects.isNull(item)) {
-            log.error("Item não encontrado");
-            return false;
-        }
-
-        final var usuario = this.pegaUsuario(token);
-        if(Objects.isNull(usuario)) {
-            return false;
-        }
+        return this.medidor.mede(INSERE, "total",
+                () -> this.adicionaItem(validaItem, this.buscaItemEUsuarioNaThread(validaItem, usuarioAutenticado)));
+    }
 
-        final var carrinho = this.repositoryCarrinho
-                .findByUsuarioAndStatus(usuario, StatusEnum.ABERTO);
-        if(carrinho.isEmpty()) {
-            final var valorTotal = item.preco().multiply(new BigDecimal(validaItem.quantidade()));
-
-            final var carrinhoEntity = CarrinhoEntity.builder()
-                    .usuario(usuario)
-                    .status(StatusEnum.ABERTO)
-                    .dataDeCriacao(LocalDateTime.now())
-                    .valorTotal(valorTotal)
-                    .build();
-            final var carrinhoSalvo = this.repositoryCarrinho.save(carrinhoEntity);
-
-            final var itemEntity = ItensNoCarrinhoEntity.builder()
-                    .id(ItensNoCarrinhoId
-                            .builder()
-                            .idCarrinho(carrinhoSalvo.getId())
-                            .ean(item.ean()).build()
-                    )
-                    .precoTotal(valorTotal)
-                    .build();
-            this.repositoryItensNoCarrinho.save(itemEntity);
+    @Override
+    public CompletableFuture<Boolean> insereAsync(final AdicionaItemDTO dadosItem,
+                                                  final UsuarioAutenticado usuarioAutenticado) {
+        final var validaItem = new Item(
+                dadosItem.ean(),
+                dadosItem.quantidade()
+        );
 
-            return true;
-        }
+        return this.medidor.medeAsync(INSERE, "total", () -> {
+            final var buscas = this.buscaItemEUsuario(validaItem, usuarioAutenticado);
+            return CompletableFuture.allOf(buscas.item(), buscas.usuario())
+                    .handle((concluidas, erro) -> concluidas)
+                    .thenCompose(concluidas -> this.naVezDoUsuario(usuarioAutenticado.login(), () -> this.adicionaItem(validaItem, buscas)));
+        });
+    }
 
-        final var carrinhoExistente = carrinho.get();
+    @Override
+    public boolean remove(final Long ean,
+                          final UsuarioAutenticado usuarioAutenticado) {
+        final var validaEan = new Ean(ean);
 
-        final var valorTotalItem = item.preco().multiply(new BigDecimal(validaItem.quantidade()));
-        final var itemEntity = ItensNoCarrinhoEntity.builder()
-                .id(ItensNoCarrinhoId
-                        .builder()
-                        .idCarrinho(carrinhoExistente.getId())
-                        .ean(item.ean()).build()
-                )
-                .precoTotal(valorTotalItem)
-                .build();
-        this.repositoryItensNoCarrinho.save(itemEntity);
+        return this.medidor.mede(REMOVE, "total", () -> {
+            final var item = this.pegaItemParaRemover(validaEan.numero(), usuarioAutenticado);
+            if(Objects.isNull(item)) {
+                log.error("Item não encontrado");
+                return false;
+            }
 
-        final var valorTotal = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinhoExistente.getId())
-                .stream()
-                .map(ItensNoCarrinhoEntity::getPrecoTotal)
-                .reduce(BigDecimal::add)
-                .get();
+            final var usuario = this.pegaUsuario(REMOVE, usuarioAutenticado);
+            if(Objects.isNull(usuario)) {
+                return false;
+            }
 
-        carrinhoExistente.setValorTotal(valorTotal);
-        this.repositoryCarrinho.save(carrinhoExistente);
-        return true;
+            return this.removeItem(usuario, validaEan.numero());
+        });
     }
 
     @Override
-    @Transactional
-    public boolean remove(final Long ean,
-                          final String token) {
+    public CompletableFuture<Boolean> removeAsync(final Long ean,
+                                                  final UsuarioAutenticado usuarioAutenticado) {
         final var validaEan = new Ean(ean);
 
-        final var item = this.clientItem.pegaItem(validaEan.numero(), token);
-        if(Objects.isNull(item)) {
-            log.error("Item não encontrado");
-            return false;
+        return this.medidor.medeAsync(REMOVE, "total", () -> this.emParalelo(() -> this.pegaItemParaRemover(validaEan.numero(), usuarioAutenticado))
+                .thenCompose(item -> {
+                    if(Objects.isNull(item)) {
+                        log.error("Item não encontrado");
+                        return CompletableFuture.<String>completedFuture(null);
+                    }
+                    return this.emParalelo(() -> this.pegaUsuario(REMOVE, usuarioAutenticado));
+                })
+                .thenCompose(usuario -> this.naVezDoUsuario(usuario, () -> this.removeItem(usuario, validaEan.numero()))));
+    }
+
+    @Override
+    public CarrinhoDisponivelParaPagamentoDTO disponivelParaPagamento(final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.mede(DISPONIVEL_PARA_PAGAMENTO, "total", () -> {
+            final var usuario = this.pegaUsuario(DISPONIVEL_PARA_PAGAMENTO, usuarioAutenticado);
+            if(Objects.isNull(usuario)) {
+                return null;
+            }
+
+            return this.pegaDisponivelParaPagamento(usuario);
+        });
+    }
+
+    @Override
+    public CompletableFuture<CarrinhoDisponivelParaPagamentoDTO> disponivelParaPagamentoAsync(final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.medeAsync(DISPONIVEL_PARA_PAGAMENTO, "total", () -> this.emParalelo(() -> this.pegaUsuario(DISPONIVEL_PARA_PAGAMENTO, usuarioAutenticado))
+                .thenApplyAsync(usuario -> Objects.isNull(usuario) ? null : this.pegaDisponivelParaPagamento(usuario),
+                        this.executorBanco));
+    }
+
+    @Override
+    public boolean finaliza(final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.mede(FINALIZA, "total", () -> {
+            final var usuario = this.pegaUsuario(FINALIZA, usuarioAutenticado);
+            if(Objects.isNull(usuario)) {
+                return false;
+            }
+
+            return this.finalizaCarrinho(usuario);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> finalizaAsync(final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.medeAsync(FINALIZA, "total", () -> this.emParalelo(() -> this.pegaUsuario(FINALIZA, usuarioAutenticado))
+                .thenCompose(usuario -> this.naVezDoUsuario(usuario, () -> this.finalizaCarrinho(usuario))));
+    }
+
+    /**
+     * Escrita dos endpoints assíncronos: espera a vez do usuário na fila desta instância sem ocupar uma thread
+     * do executor do banco e roda nele com a mesma trava e a mesma espera máxima do fluxo síncrono,
+     * então os dois modos aceitam e recusam as mesmas alterações. Sem usuário a escrita não é feita.
+     */
+    private CompletableFuture<Boolean> naVezDoUsuario(final String usuario,
+                                                      final BooleanSupplier escrita) {
+        if(Objects.isNull(usuario)) {
+            return CompletableFuture.completedFuture(false);
         }
+        return this.filaCarrinho.executa(usuario, this.executorBanco, escrita);
+    }
 
-        final var carrinhoExistente = this.getCarrinho(token);
-        if(Objects.isNull(carrinhoExistente)) {
-            return false;
+    /**
+     * Busca o item no executor e o usuário na thread da requisição, que de qualquer forma ficaria esperando:
+     * cada requisição síncrona ocupa no máximo uma thread do executor. Se o usuário não existir, a busca do item
+     * é cancelada.
+     */
+    private BuscaItemEUsuario buscaItemEUsuarioNaThread(final Item validaItem,
+                                                        final UsuarioAutenticado usuarioAutenticado) {
+        final var itemFuturo = this.emParalelo(() -> this.pegaItemParaCheckout(validaItem, usuarioAutenticado));
+        final var usuario = this.pegaUsuario(INSERE, usuarioAutenticado);
+        if(Objects.isNull(usuario)) {
+            itemFuturo.cancel(true);
         }
+        return new BuscaItemEUsuario(itemFuturo, CompletableFuture.completedFuture(usuario));
+    }
+
+    /**
+     * Busca o item e o usuário ao mesmo tempo no executor, sem prender a thread da requisição;
+     * se uma das buscas falhar ou não encontrar nada, a outra é cancelada.
+     */
+    private BuscaItemEUsuario buscaItemEUsuario(final Item validaItem,
+                                                final UsuarioAutenticado usuarioAutenticado) {
+        final var itemFuturo = this.emParalelo(() -> this.pegaItemParaCheckout(validaItem, usuarioAutenticado));
+        final var usuarioFuturo = this.emParalelo(() -> this.pegaUsuario(INSERE, usuarioAutenticado));
+        this.cancelaSeFalhar(itemFuturo, usuarioFuturo);
+        this.cancelaSeFalhar(usuarioFuturo, itemFuturo);
+        return new BuscaItemEUsuario(itemFuturo, usuarioFuturo);
+    }
 
-        final var itensDoCarrinho = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinhoExistente.getId());
-        long count = itensDoCarrinho
-                .stream()
-                .filter(itemDoCarrinho -> itemDoCarrinho.getId().getEan().equals(validaEan.numero()))
-                .count();
-        if(count == 0) {
-            log.error("Item não encontrado no carrinho");
+    /**
+     * Conclui a inserção com o resultado das buscas; no fluxo assíncrono as duas já terminaram.
+     */
+    private boolean adicionaItem(final Item validaItem,
+                                 final BuscaItemEUsuario buscas) {
+        final var item = this.aguarda(buscas.item());
+        final var usuario = this.aguarda(buscas.usuario());
+        if(Objects.isNull(item)) {
+            if(!buscas.item().isCancelled()) {
+                log.error("Item não encontrado");
+            }
+            return false;
+        }
+        if(Objects.isNull(usuario)) {
             return false;
         }
 
-        final var itemEntity = ItensNoCarrinhoEntity.builder()
-                .id(ItensNoCarrinhoId
-                        .builder()
-                        .idCarrinho(carrinhoExistente.getId())
-                        .ean(item.ean()).build()
-                )
-                .build();
-        this.repositoryItensNoCarrinho.delete(itemEntity);
-
-        final var valorTotal = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinhoExistente.getId())
-                .stream()
-                .map(ItensNoCarrinhoEntity::getPrecoTotal)
-                .reduce(BigDecimal::add);
-        if(valorTotal.isPresent()) {
-            carrinhoExistente.setValorTotal(valorTotal.get());
-            this.repositoryCarrinho.save(carrinhoExistente);
+        final var valorTotalItem = item.preco().multiply(new BigDecimal(validaItem.quantidade()));
+        return this.emTransacaoComRetentativas(INSERE, usuario, () -> {
+            this.repositoryEscrita.adicionaItem(usuario, item.ean(), valorTotalItem);
+            this.consultaCarrinho.invalida(usuario);
             return true;
-        }
-        log.info("Carrinho zerado");
-        this.repositoryCarrinho.delete(carrinhoExistente);
-        return true;
+        });
     }
 
-    @Override
-    public CarrinhoDisponivelParaPagamentoDTO disponivelParaPagamento(final String token) {
-        final var carrinhoSelecionado = this.getCarrinho(token);
-        if(Objects.isNull(carrinhoSelecionado)) {
-            return null;            
-        }
+    private boolean removeItem(final String usuario,
+                               final Long ean) {
+        return this.emTransacaoComRetentativas(REMOVE, usuario, () -> {
+            final var removido = this.repositoryEscrita.removeItem(usuario, ean);
+            if(removido) {
+                this.consultaCarrinho.invalida(usuario);
+            }
+            return removido;
+        });
+    }
 
-        final var itensDoCarrinho = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinhoSelecionado.getId())
-                .stream()
-                .map(item -> new ItensDoCarrinhoDTO(
-                        item.getId().getEan(),
-                        item.getPrecoTotal()
-                    )
-                )
-                .toList();
+    private boolean finalizaCarrinho(final String usuario) {
+        return this.emTransacaoComRetentativas(FINALIZA, usuario, () -> {
+            final var carrinho = this.repositoryCarrinho
+                    .findByUsuarioAndStatus(usuario, StatusEnum.ABERTO);
+            if(carrinho.isEmpty()) {
+                log.error("Carrinho não encontrado");
+                return false;
+            }
 
-        return new CarrinhoDisponivelParaPagamentoDTO(
-                carrinhoSelecionado.getUsuario(),
-                carrinhoSelecionado.getValorTotal(),
-                itensDoCarrinho
-        );
+            final var carrinhoSelecionado = carrinho.get();
+            carrinhoSelecionado.setStatus(StatusEnum.FINALIZADO);
+            this.repositoryCarrinho.save(carrinhoSelecionado);
+            this.consultaCarrinho.invalida(usuario);
+            return true;
+        });
     }
 
-    @Override
-    public boolean finaliza(final String token) {
-        final var carrinhoSelecionado = this.getCarrinho(token);
-        if(Objects.isNull(carrinhoSelecionado)) {
+    /**
+     * Executa a escrita numa transação, com a trava do usuário nesta instância e, se configurada,
+     * também no banco de dados (primeiro comando da transação), e, se ela perder para
+     * uma escrita concorrente de outra instância (versão desatualizada ou segundo carrinho aberto do usuário,
+     * no índice {@code ux_carrinho_usuario_aberto}), repete a transação inteira até o limite de tentativas,
+     * com uma espera aleatória que dobra a cada conflito; outras violações de integridade não são repetidas.
+     * A versão só é conferida na escrita JPA: a escrita SQL só a incrementa (para o cache do carrinho) e depende
+     * das travas no banco, a do carrinho ou a da linha do carrinho aberto, e do índice único.
+     * Se a espera pela trava no banco se esgotar a alteração é recusada, como quando a trava desta instância
+     * não é obtida. A etapa {@code transacao} mede todas as tentativas e {@code escrita} cada tentativa; a espera pelas travas
+     * já fica no timer {@code trava.espera}.
+     */
+    private boolean emTransacaoComRetentativas(final String operacao,
+                                               final String usuario,
+                                               final Supplier<Boolean> escrita) {
+        return this.travaCarrinho.executa(usuario, () -> this.medidor.mede(operacao, "transacao",
+                () -> this.emTransacaoComRetentativas(() -> {
+                    this.travaCarrinhoNoBanco.trava(usuario);
+                    return this.medidor.mede(operacao, "escrita", escrita);
+                })));
+    }
+
+    private boolean emTransacaoComRetentativas(final Supplier<Boolean> escrita) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return Boolean.TRUE.equals(this.transacao.execute(status -> escrita.get()));
+            } catch (PessimisticLockingFailureException e) {
+                log.warn("Espera pela trava do carrinho no banco esgotada", e);
+                return false;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if(e instanceof DataIntegrityViolationException && !segundoCarrinhoAberto(e)) {
+                    throw e;
+                }
+                if(tentativa >= this.tentativasEmConflito) {
+                    log.error("Conflito ao alterar o carrinho, tentativas esgotadas", e);
+                    return false;
+                }
+                log.warn("Conflito ao alterar o carrinho, tentativa {} de {}", tentativa, this.tentativasEmConflito);
+                if(!this.esperaAntesDaTentativa(tentativa)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Violação do índice único do carrinho aberto: outra instância criou o carrinho do usuário ao mesmo tempo.
+     */
+    private static boolean segundoCarrinhoAberto(final Throwable erro) {
+        for (var causa = erro; Objects.nonNull(causa); causa = causa.getCause()) {
+            if(causa instanceof SQLException sql
+                    && VIOLACAO_DE_UNICIDADE.equals(sql.getSQLState())
+                    && Objects.nonNull(sql.getMessage())
+                    && sql.getMessage().toLowerCase(Locale.ROOT).contains(INDICE_CARRINHO_ABERTO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean esperaAntesDaTentativa(final int tentativa) {
+        final var esperaMaxima = this.esperaEntreTentativas.toMillis() << Math.min(tentativa - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(esperaMaxima + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return false;
         }
+    }
 
-        carrinhoSelecionado.setStatus(StatusEnum.FINALIZADO);
-        this.repositoryCarrinho.save(carrinhoSelecionado);
-        return true;
+    private CarrinhoDisponivelParaPagamentoDTO pegaDisponivelParaPagamento(final String usuario) {
+        return this.medidor.mede(DISPONIVEL_PARA_PAGAMENTO, "consulta",
+                () -> this.consultaCarrinho.pegaDisponivelParaPagamento(usuario, this::versaoDoCarrinho, this::carregaDisponivelParaPagamento));
     }
 
-    private String pegaUsuario(final String token) {
-        final var jwt = this.serviceToken.pegaJwt(token.replace("Bearer ", ""));
-        if(Objects.isNull(jwt)){
-            log.error("Token inválido");
+    private VersaoDoCarrinho versaoDoCarrinho(final String usuario) {
+        return this.medidor.mede(DISPONIVEL_PARA_PAGAMENTO, "versao", () -> this.repositoryCarrinho
+                .findVersaoByUsuarioAndStatus(usuario, StatusEnum.ABERTO)
+                .orElse(null));
+    }
+
+    private CarrinhoConsulta.CarrinhoCarregado carregaDisponivelParaPagamento(final String usuario) {
+        final var itensDoCarrinho = this.medidor.mede(DISPONIVEL_PARA_PAGAMENTO, "leitura", () -> this.repositoryCarrinho
+                .findItensByUsuarioAndStatus(usuario, StatusEnum.ABERTO));
+        if(itensDoCarrinho.isEmpty()) {
+            log.error("Carrinho não encontrado");
             return null;
         }
 
-        final var usuario = this.serviceToken.pegaUsuario(jwt);
+        return new CarrinhoConsulta.CarrinhoCarregado(
+                itensDoCarrinho.get(0).versao(),
+                new CarrinhoDisponivelParaPagamentoDTO(
+                        usuario,
+                        itensDoCarrinho.get(0).valorTotalDoCarrinho(),
+                        itensDoCarrinho
+                                .stream()
+                                .map(item -> new ItensDoCarrinhoDTO(
+                                        item.ean(),
+                                        item.precoTotal()
+                                    )
+                                )
+                                .toList()
+                )
+        );
+    }
+
+    private ItemDTO pegaItemParaCheckout(final Item validaItem,
+                                         final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.mede(INSERE, "item", () -> this.consultaItem.pegaItemParaCheckout(validaItem.ean(), usuarioAutenticado.token()));
+    }
+
+    private ItemDTO pegaItemParaRemover(final Long ean,
+                                        final UsuarioAutenticado usuarioAutenticado) {
+        return this.medidor.mede(REMOVE, "item", () -> this.consultaItem.pegaItem(ean, usuarioAutenticado.token()));
+    }
+
+    private String pegaUsuario(final String operacao,
+                               final UsuarioAutenticado usuarioAutenticado) {
+        final var usuario = usuarioAutenticado.login();
         try {
-            final var usuarioExiste = this.clientUsuario.usuarioExiste(usuario, token);
+            final var usuarioExiste = this.medidor.mede(operacao, "usuario",
+                    () -> this.consultaUsuario.usuarioExiste(usuario, usuarioAutenticado.token()));
             if(Objects.isNull(usuarioExiste) || !usuarioExiste) {
                 log.error("Usuario não encontrado");
                 return null;
@@ -223,20 +435,38 @@ public class CarrinhoUseCaseImpl implements CarrinhoUseCase {
         return usuario;
     }
 
-    private CarrinhoEntity getCarrinho(final String token) {
-        final var usuario = this.pegaUsuario(token);
-        if(Objects.isNull(usuario)) {
-            return null;
+    private <T> CompletableFuture<T> emParalelo(final Supplier<T> chamada) {
+        try {
+            return CompletableFuture.supplyAsync(chamada, this.executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Executor de chamadas remotas cheio, executando na thread da requisição");
+            return CompletableFuture.supplyAsync(chamada, Runnable::run);
         }
+    }
 
-        final var carrinho = this.repositoryCarrinho
-                .findByUsuarioAndStatus(usuario, StatusEnum.ABERTO);
-        if(carrinho.isEmpty()) {
-            log.error("Carrinho não encontrado");
+    private void cancelaSeFalhar(final CompletableFuture<?> chamada,
+                                 final CompletableFuture<?> outraChamada) {
+        chamada.whenComplete((resultado, erro) -> {
+            if(Objects.nonNull(erro) || Objects.isNull(resultado)) {
+                outraChamada.cancel(true);
+            }
+        });
+    }
+
+    private <T> T aguarda(final CompletableFuture<T> chamada) {
+        try {
+            return chamada.join();
+        } catch (CancellationException e) {
             return null;
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
         }
-
-        return carrinho.get();
     }
 
+    private record BuscaItemEUsuario(CompletableFuture<ItemDTO> item,
+                                     CompletableFuture<String> usuario) {}
+
 }
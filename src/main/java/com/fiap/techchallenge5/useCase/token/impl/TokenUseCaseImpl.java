@@ -1,38 +1,60 @@
 package com.fiap.techchallenge5.useCase.token.impl;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fiap.techchallenge5.useCase.token.TokenUseCase;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Service
 @Slf4j
 public class TokenUseCaseImpl implements TokenUseCase {
 
-    @Value("${api.security.token.secret}")
-    private String secret;
+    private final JWTVerifier verificador;
+    private final Cache<String, DecodedJWT> tokensVerificados;
+    private final Map<String, List<GrantedAuthority>> permissoesPorRole = new ConcurrentHashMap<>();
+
+    public TokenUseCaseImpl(@Value("${api.security.token.secret}") final String secret,
+                            @Value("${api.security.token.cache.tamanho-maximo:10000}") final long tamanhoMaximo,
+                            @Value("${api.security.token.cache.tempo-maximo:PT1H}") final Duration tempoMaximo,
+                            final MeterRegistry registry) {
+        this.verificador = JWT.require(Algorithm.HMAC256(secret))
+                .withIssuer("auth-api")
+                .build();
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiraJuntoComToken(tempoMaximo))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, this.tokensVerificados, "token.jwt");
+    }
 
     @Override
     public DecodedJWT pegaJwt(String token) {
-        try {
-            final var algorithm = Algorithm.HMAC256(this.secret);
-            return JWT.require(algorithm)
-                    .withIssuer("auth-api")
-                    .build()
-                    .verify(token);
-        } catch (Exception error) {
-            log.error("Erro ao decodificar o token", error);
-            return null;
-        }
+        return this.tokensVerificados.get(this.digest(token), chave -> this.verifica(token));
     }
 
     @Override
@@ -42,7 +64,60 @@ public class TokenUseCaseImpl implements TokenUseCase {
 
     @Override
     public Collection<? extends GrantedAuthority> pegaPermissoes(DecodedJWT jwt) {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + jwt.getClaim("role").asString()));
+        return this.permissoesPorRole.computeIfAbsent(
+                String.valueOf(jwt.getClaim("role").asString()),
+                role -> List.of(new SimpleGrantedAuthority("ROLE_" + role))
+        );
+    }
+
+    private DecodedJWT verifica(final String token) {
+        try {
+            return this.verificador.verify(token);
+        } catch (Exception error) {
+            log.error("Erro ao decodificar o token", error);
+            return null;
+        }
+    }
+
+    private String digest(final String token) {
+        try {
+            final var hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", error);
+        }
+    }
+
+    /**
+     * Mantém cada token no cache somente até o seu {@code exp}, limitado pelo tempo máximo configurado.
+     */
+    private record ExpiraJuntoComToken(Duration tempoMaximo) implements Expiry<String, DecodedJWT> {
+
+        @Override
+        public long expireAfterCreate(String chave, DecodedJWT jwt, long tempoAtual) {
+            final var expiraEm = jwt.getExpiresAtAsInstant();
+            if(Objects.isNull(expiraEm)) {
+                return this.tempoMaximo.toNanos();
+            }
+            final var restante = Duration.between(Instant.now(), expiraEm);
+            if(restante.isNegative()) {
+                return 0;
+            }
+            return restante.compareTo(this.tempoMaximo) < 0
+                    ? restante.toNanos()
+                    : this.tempoMaximo.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, DecodedJWT jwt, long tempoAtual, long duracaoAtual) {
+            return duracaoAtual;
+        }
+
+        @Override
+        public long expireAfterRead(String chave, DecodedJWT jwt, long tempoAtual, long duracaoAtual) {
+            return duracaoAtual;
+        }
     }
 
 }
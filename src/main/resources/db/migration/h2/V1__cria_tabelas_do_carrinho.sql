@@ -0,0 +1,14 @@
+CREATE TABLE tb_carrinho (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    data_de_criacao TIMESTAMP(6),
+    status VARCHAR(255),
+    usuario VARCHAR(255),
+    valor_total NUMERIC(38, 2)
+);
+
+CREATE TABLE tb_itens_no_carrinho (
+    ean BIGINT NOT NULL,
+    id_carrinho BIGINT NOT NULL,
+    preco_total NUMERIC(38, 2),
+    PRIMARY KEY (ean, id_carrinho)
+);
@@ -0,0 +1,48 @@
+-- Bancos criados antes do Flyway (baseline na versao 1) podem ter mais de um carrinho ABERTO por usuario,
+-- o que impede o indice unico. Os carrinhos ABERTOS de cada usuario sao juntados no mais recente: ele recebe
+-- os itens dos mais antigos que ainda nao tem (no mesmo ean vale o item do carrinho mais recente), o valor
+-- total e recalculado pelos itens e os carrinhos mais antigos sao apagados.
+CREATE VIEW vw_carrinho_aberto_duplicado AS
+SELECT id,
+       usuario,
+       ROW_NUMBER() OVER (PARTITION BY usuario ORDER BY data_de_criacao DESC NULLS LAST, id DESC) AS posicao,
+       COUNT(*) OVER (PARTITION BY usuario) AS abertos
+FROM tb_carrinho
+WHERE status = 'ABERTO';
+
+INSERT INTO tb_itens_no_carrinho (ean, id_carrinho, preco_total)
+SELECT ean, id_mantido, preco_total
+FROM (
+    SELECT i.ean,
+           mantido.id AS id_mantido,
+           i.preco_total,
+           ROW_NUMBER() OVER (PARTITION BY mantido.id, i.ean ORDER BY antigo.posicao) AS posicao_do_item
+    FROM tb_itens_no_carrinho i
+    JOIN vw_carrinho_aberto_duplicado antigo ON antigo.id = i.id_carrinho AND antigo.posicao > 1
+    JOIN vw_carrinho_aberto_duplicado mantido ON mantido.usuario = antigo.usuario AND mantido.posicao = 1
+) itens_antigos
+WHERE posicao_do_item = 1
+  AND NOT EXISTS (
+      SELECT 1 FROM tb_itens_no_carrinho j WHERE j.id_carrinho = itens_antigos.id_mantido AND j.ean = itens_antigos.ean
+  );
+
+UPDATE tb_carrinho
+SET valor_total = (SELECT COALESCE(SUM(i.preco_total), 0) FROM tb_itens_no_carrinho i WHERE i.id_carrinho = tb_carrinho.id)
+WHERE id IN (SELECT id FROM vw_carrinho_aberto_duplicado WHERE posicao = 1 AND abertos > 1);
+
+DELETE FROM tb_itens_no_carrinho
+WHERE id_carrinho IN (SELECT id FROM vw_carrinho_aberto_duplicado WHERE posicao > 1);
+
+DELETE FROM tb_carrinho
+WHERE id IN (SELECT id FROM vw_carrinho_aberto_duplicado WHERE posicao > 1);
+
+DROP VIEW vw_carrinho_aberto_duplicado;
+
+-- O H2 nao tem indice parcial: a coluna gerada so tem valor para carrinhos ABERTOS
+-- e o indice unico ignora os NULL, o que equivale ao indice parcial do PostgreSQL.
+ALTER TABLE tb_carrinho ADD COLUMN usuario_aberto VARCHAR(255)
+    GENERATED ALWAYS AS (CASE WHEN status = 'ABERTO' THEN usuario END);
+CREATE UNIQUE INDEX ux_carrinho_usuario_aberto ON tb_carrinho (usuario_aberto);
+
+-- A chave primaria comeca pelo ean, entao a busca dos itens de um carrinho precisa de indice proprio.
+CREATE INDEX ix_itens_no_carrinho_id_carrinho ON tb_itens_no_carrinho (id_carrinho);
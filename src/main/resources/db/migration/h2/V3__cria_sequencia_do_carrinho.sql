@@ -0,0 +1,6 @@
+-- Ids do carrinho passam a vir de uma sequencia com blocos de 50 (otimizador pooled-lo do Hibernate),
+-- o que permite agrupar os INSERTs em lote; a identidade da coluna deixa de ser usada.
+CREATE SEQUENCE sq_carrinho INCREMENT BY 50;
+ALTER SEQUENCE sq_carrinho RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM tb_carrinho);
+
+ALTER TABLE tb_carrinho ALTER COLUMN id DROP IDENTITY;
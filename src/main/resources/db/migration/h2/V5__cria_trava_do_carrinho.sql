@@ -0,0 +1,7 @@
+-- O H2 nao tem advisory lock: a trava do carrinho no banco (api.carrinho.escrita.trava=banco)
+-- trava uma destas linhas com SELECT ... FOR UPDATE, escolhida pelo hash do usuario.
+CREATE TABLE tb_trava_carrinho (
+    id INTEGER NOT NULL PRIMARY KEY
+);
+
+INSERT INTO tb_trava_carrinho (id) SELECT * FROM SYSTEM_RANGE(0, 1023);
@@ -0,0 +1,4 @@
+-- Hash do corpo da requisicao original (repeticao com outro corpo recebe 422) e status nulo
+-- enquanto a requisicao original esta em andamento.
+ALTER TABLE tb_resposta_idempotente ADD COLUMN hash_do_corpo VARCHAR(64);
+ALTER TABLE tb_resposta_idempotente ALTER COLUMN status DROP NOT NULL;
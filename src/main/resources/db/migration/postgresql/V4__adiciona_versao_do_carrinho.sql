@@ -0,0 +1,2 @@
+-- Versao para o lock otimista do carrinho (@Version do CarrinhoEntity).
+ALTER TABLE tb_carrinho ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Status das respostas a requisicoes com Idempotency-Key (api.carrinho.idempotencia.armazenamento=banco).
+CREATE TABLE tb_resposta_idempotente (
+    chave VARCHAR(600) NOT NULL PRIMARY KEY,
+    status INTEGER NOT NULL,
+    expira_em TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX ix_resposta_idempotente_expira_em ON tb_resposta_idempotente (expira_em);
@@ -27,6 +27,7 @@ public class CarrinhoDisponivelParaPagamentoSteps {
 
     private final JdbcTemplate jdbcTemplate = this.criaConexaoComBaseDeDados();
     private Response response;
+    private ComandosSqlNaAplicacao comandosSql;
     private AdicionaItemDTO request;
     private Long ean;
     private String token;
@@ -103,6 +104,7 @@ public class CarrinhoDisponivelParaPagamentoSteps {
     @Quando("verifico esse carrinho")
     public void verificoEsseCarrinho() {
         RestAssured.baseURI = "http://localhost:8082";
+        this.comandosSql = new ComandosSqlNaAplicacao(this.token);
         this.response = given()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .header("Authorization", "Bearer " + this.token)
@@ -130,6 +132,11 @@ public class CarrinhoDisponivelParaPagamentoSteps {
 
     }
 
+    @Entao("a verificação executou no máximo {int} comandos no banco de dados")
+    public void aVerificacaoExecutouNoMaximoComandosNoBancoDeDados(final int orcamento) {
+        this.comandosSql.noMaximo(orcamento);
+    }
+
     private ClientAndServer criaMockServerItem(final Long ean,
                                                final Long novoEan) {
         final var clientAndServer = ClientAndServer.startClientAndServer(8081);
@@ -0,0 +1,40 @@
+package com.fiap.techchallenge5.bdd;
+
+import org.springframework.http.HttpStatus;
+
+import static com.fiap.techchallenge5.infrastructure.metricas.ContadorDeComandosSql.METRICA_COMANDOS;
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comandos SQL executados pela aplicação em teste, lidos do {@code /actuator/metrics/jdbc.comandos}.
+ */
+public class ComandosSqlNaAplicacao {
+
+    private final String token;
+    private long antes;
+
+    public ComandosSqlNaAplicacao(final String token) {
+        this.token = token;
+        this.antes = this.executados();
+    }
+
+    public void noMaximo(final long orcamento) {
+        final var executados = this.executados() - this.antes;
+        assertTrue(executados <= orcamento,
+                "executou " + executados + " comandos SQL, o orçamento é " + orcamento);
+    }
+
+    private long executados() {
+        return (long) given()
+                .header("Authorization", "Bearer " + this.token)
+                .when()
+                .get("/actuator/metrics/" + METRICA_COMANDOS)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getDouble("measurements[0].value");
+    }
+
+}
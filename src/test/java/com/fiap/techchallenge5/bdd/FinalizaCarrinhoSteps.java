@@ -26,6 +26,7 @@ public class FinalizaCarrinhoSteps {
 
     private final JdbcTemplate jdbcTemplate = this.criaConexaoComBaseDeDados();
     private Response response;
+    private ComandosSqlNaAplicacao comandosSql;
     private AdicionaItemDTO request;
     private Long ean;
     private String token;
@@ -102,6 +103,7 @@ public class FinalizaCarrinhoSteps {
     @Quando("finalizo esse carrinho")
     public void finalizoEsseCarrinho() {
         RestAssured.baseURI = "http://localhost:8082";
+        this.comandosSql = new ComandosSqlNaAplicacao(this.token);
         this.response = given()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .header("Authorization", "Bearer " + this.token)
@@ -129,6 +131,11 @@ public class FinalizaCarrinhoSteps {
 
     }
 
+    @Entao("a finalização executou no máximo {int} comandos no banco de dados")
+    public void aFinalizacaoExecutouNoMaximoComandosNoBancoDeDados(final int orcamento) {
+        this.comandosSql.noMaximo(orcamento);
+    }
+
     private ClientAndServer criaMockServerItem(final Long ean,
                                                final Long novoEan) {
         final var clientAndServer = ClientAndServer.startClientAndServer(8081);
@@ -23,6 +23,7 @@ import static io.restassured.RestAssured.given;
 public class InsereItemSteps {
 
     private Response response;
+    private ComandosSqlNaAplicacao comandosSql;
     private AdicionaItemDTO request;
     private Long ean;
     private String token;
@@ -110,6 +111,7 @@ public class InsereItemSteps {
     @Quando("insiro o item no carrinho")
     public void insiroOItemNoCarrinho() {
         RestAssured.baseURI = "http://localhost:8082";
+        this.comandosSql = new ComandosSqlNaAplicacao(this.token);
         this.response = given()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .header("Authorization", "Bearer " + token)
@@ -138,6 +140,11 @@ public class InsereItemSteps {
 
     }
 
+    @Entao("o insere executou no máximo {int} comandos no banco de dados")
+    public void oInsereExecutouNoMaximoComandosNoBancoDeDados(final int orcamento) {
+        this.comandosSql.noMaximo(orcamento);
+    }
+
     private ClientAndServer criaMockServerItem(final Long ean,
                                                final Long novoEan) {
         final var clientAndServer = ClientAndServer.startClientAndServer(8081);
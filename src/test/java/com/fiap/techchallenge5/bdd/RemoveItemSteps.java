@@ -24,6 +24,7 @@ import static io.restassured.RestAssured.given;
 public class RemoveItemSteps {
 
     private Response response;
+    private ComandosSqlNaAplicacao comandosSql;
     private AdicionaItemDTO request;
     private Long ean;
     private String token;
@@ -155,6 +156,7 @@ public class RemoveItemSteps {
     @Quando("removo o item no carrinho")
     public void removoOItemNoCarrinho() {
         RestAssured.baseURI = "http://localhost:8082";
+        this.comandosSql = new ComandosSqlNaAplicacao(this.token);
         this.response = given()
                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                 .header("Authorization", "Bearer " + token)
@@ -182,6 +184,11 @@ public class RemoveItemSteps {
 
     }
 
+    @Entao("a remoção executou no máximo {int} comandos no banco de dados")
+    public void aRemocaoExecutouNoMaximoComandosNoBancoDeDados(final int orcamento) {
+        this.comandosSql.noMaximo(orcamento);
+    }
+
     private ClientAndServer criaMockServerItem(final Long ean,
                                                final Long novoEan) {
         final var clientAndServer = ClientAndServer.startClientAndServer(8081);
@@ -0,0 +1,347 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.*;
+import static com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes.CABECALHO_IDEMPOTENCIA;
+
+
+@AutoConfigureMockMvc
+@SpringBootTest
+@TestPropertySource(properties = PROPRIEDADE_MODO + "=async")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CarrinhoAsyncControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @MockBean
+    ItemClient clientItem;
+
+    @Autowired
+    @MockBean
+    UsuarioClient clientUsuario;
+
+    @Autowired
+    CarrinhoRepository repositoryCarrinho;
+
+    @Autowired
+    ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    CarrinhoConsulta consultaCarrinho;
+
+    @Autowired
+    RespostasIdempotentes respostasIdempotentes;
+
+    private final String token = JwtUtil.geraJwt();
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+        this.consultaCarrinho.invalidaTodos();
+        this.respostasIdempotentes.invalidaTodos();
+    }
+
+    @AfterAll
+    void finalizaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+    }
+
+    @Test
+    public void insere_deveRetornar201_carrinhoVazio_salvaNaBaseDeDados() throws Exception {
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        var jsonRequest = this.objectMapper.writeValueAsString(new AdicionaItemDTO(
+                7894900011517L,
+                5L
+        ));
+
+        var resultado = this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .request()
+                        .asyncStarted()
+                )
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        var carrinho = this.repositoryCarrinho.findAll().get(0);
+        var itensDoCarrinho = this.repositoryItensNoCarrinho.findAll();
+
+        Assertions.assertEquals(StatusEnum.ABERTO, carrinho.getStatus());
+        Assertions.assertEquals("teste", carrinho.getUsuario());
+        Assertions.assertEquals(new BigDecimal("500.00"), carrinho.getValorTotal());
+        Assertions.assertEquals(1, itensDoCarrinho.size());
+    }
+
+    @Test
+    public void insere_deveRetornar201_mesmaIdempotencyKey_naoSalvaNovamente() throws Exception {
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        var jsonRequest = this.objectMapper.writeValueAsString(new AdicionaItemDTO(
+                7894900011517L,
+                5L
+        ));
+        var chaveIdempotencia = UUID.randomUUID().toString();
+
+        for (int i = 0; i < 2; i++) {
+            var resultado = this.mockMvc
+                    .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                            .header("Authorization", "Bearer " + this.token)
+                            .header(CABECALHO_IDEMPOTENCIA, chaveIdempotencia)
+                            .content(jsonRequest)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andReturn();
+
+            this.mockMvc
+                    .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                    .andExpect(MockMvcResultMatchers
+                            .status()
+                            .isCreated()
+                    );
+        }
+
+        Assertions.assertEquals(new BigDecimal("500.00"), this.repositoryCarrinho.findAll().get(0).getValorTotal());
+        Mockito.verify(this.clientItem, Mockito.times(1)).pegaItem(7894900011517L, "Bearer " + this.token);
+    }
+
+    @Test
+    public void insere_deveRetornar409_usuarioNaoExiste_naoSalvaNaBaseDeDados() throws Exception {
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        false
+                );
+
+        var jsonRequest = this.objectMapper.writeValueAsString(new AdicionaItemDTO(
+                7894900011517L,
+                5L
+        ));
+
+        var resultado = this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isConflict()
+                );
+
+        Assertions.assertEquals(0, this.repositoryCarrinho.findAll().size());
+        Assertions.assertEquals(0, this.repositoryItensNoCarrinho.findAll().size());
+    }
+
+    @Test
+    public void insere_deveRetornar401_semToken() throws Exception {
+        var jsonRequest = this.objectMapper.writeValueAsString(new AdicionaItemDTO(
+                7894900011517L,
+                5L
+        ));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isUnauthorized()
+                );
+    }
+
+    @Test
+    public void remove_deveRetornar200_carrinhoComItens_salvaNaBaseDeDados() throws Exception {
+        this.salvaCarrinhoComItem();
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        var resultado = this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_CARRINHO + "/7894900011517")
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                );
+
+        Assertions.assertEquals(0, this.repositoryItensNoCarrinho.findAll().size());
+    }
+
+    @Test
+    public void disponivelParaPagamento_deveRetornar200_sucesso() throws Exception {
+        this.salvaCarrinhoComItem();
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        var resultado = this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers
+                        .jsonPath("$.valorTotal")
+                        .value(500.00)
+                );
+    }
+
+    @Test
+    public void finaliza_deveRetornar200_sucesso_salvaNaBaseDeDados() throws Exception {
+        this.salvaCarrinhoComItem();
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        var resultado = this.mockMvc
+                .perform(MockMvcRequestBuilders.put(URL_CARRINHO_FINALIZA)
+                        .header("Authorization", "Bearer " + this.token)
+                        .header(CABECALHO_IDEMPOTENCIA, UUID.randomUUID().toString())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                );
+
+        Assertions.assertEquals(StatusEnum.FINALIZADO, this.repositoryCarrinho.findAll().get(0).getStatus());
+    }
+
+    private void salvaCarrinhoComItem() {
+        final var carrinhoSalvo = this.repositoryCarrinho.save(
+                CarrinhoEntity.builder()
+                        .usuario("teste")
+                        .status(StatusEnum.ABERTO)
+                        .dataDeCriacao(LocalDateTime.now())
+                        .valorTotal(new BigDecimal("500.00"))
+                        .build()
+        );
+        this.repositoryItensNoCarrinho.save(
+                ItensNoCarrinhoEntity.builder()
+                        .id(ItensNoCarrinhoId.builder()
+                                .idCarrinho(carrinhoSalvo.getId())
+                                .ean(7894900011517L)
+                                .build())
+                        .precoTotal(new BigDecimal("500.00"))
+                        .build()
+        );
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import com.fiap.techchallenge5.useCase.carrinho.CarrinhoUseCase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Várias threads alterando o carrinho do mesmo usuário ao mesmo tempo: nenhuma alteração pode se perder.
+ */
+@Slf4j
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CarrinhoConcorrenciaIT {
+
+    private static final int THREADS = 8;
+    private static final int ITENS_POR_THREAD = 25;
+    private static final BigDecimal PRECO = new BigDecimal("10.00");
+    static final UsuarioAutenticado USUARIO = new UsuarioAutenticado("teste", "Bearer token");
+
+    @Autowired
+    @MockBean
+    ItemClient clientItem;
+
+    @Autowired
+    @MockBean
+    UsuarioClient clientUsuario;
+
+    @Autowired
+    CarrinhoUseCase service;
+
+    @Autowired
+    CarrinhoRepository repositoryCarrinho;
+
+    @Autowired
+    ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    CarrinhoConsulta consultaCarrinho;
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+        this.consultaCarrinho.invalidaTodos();
+
+        Mockito.when(this.clientItem.pegaItem(anyLong(), any()))
+                .thenAnswer(invocacao -> new ItemDTO(invocacao.getArgument(0), PRECO));
+        Mockito.when(this.clientUsuario.usuarioExiste(any(), any()))
+                .thenReturn(
+                        true
+                );
+    }
+
+    @AfterAll
+    void finalizaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+    }
+
+    @Test
+    public void insere_itensDiferentesEmParalelo_naoPerdeNenhumItem() throws Exception {
+        // execução
+        final var resultados = this.emParalelo((thread, i) -> this.service.insere(
+                new AdicionaItemDTO(1000L + thread * ITENS_POR_THREAD + i, 1L),
+                USUARIO
+        ));
+
+        // avaliação
+        Assertions.assertTrue(resultados.stream().allMatch(Boolean::booleanValue));
+        final var aceitas = resultados.stream().filter(Boolean::booleanValue).count();
+        final var carrinho = this.repositoryCarrinho.findByUsuarioAndStatus("teste", StatusEnum.ABERTO).orElseThrow();
+        final var itens = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinho.getId());
+        Assertions.assertEquals(aceitas, itens.size());
+        Assertions.assertEquals(0, carrinho.getValorTotal().compareTo(PRECO.multiply(new BigDecimal(aceitas))));
+    }
+
+    @Test
+    public void insere_mesmoItemEmParalelo_valorTotalIgualASomaDosItens() throws Exception {
+        // execução
+        final var resultados = this.emParalelo((thread, i) -> this.service.insere(
+                new AdicionaItemDTO(1000L + i % 5, (long) thread + 1),
+                USUARIO
+        ));
+
+        // avaliação
+        Assertions.assertTrue(resultados.stream().allMatch(Boolean::booleanValue));
+        final var carrinho = this.repositoryCarrinho.findByUsuarioAndStatus("teste", StatusEnum.ABERTO).orElseThrow();
+        final var somaDosItens = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinho.getId())
+                .stream()
+                .map(ItensNoCarrinhoEntity::getPrecoTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Assertions.assertEquals(0, carrinho.getValorTotal().compareTo(somaDosItens));
+    }
+
+    private List<Boolean> emParalelo(final Operacao operacao) throws Exception {
+        final var executor = Executors.newFixedThreadPool(THREADS);
+        final var largada = new CountDownLatch(1);
+        final var futuros = new ArrayList<Future<List<Boolean>>>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final var numeroDaThread = thread;
+            futuros.add(executor.submit((Callable<List<Boolean>>) () -> {
+                largada.await();
+                final var resultados = new ArrayList<Boolean>();
+                for (int i = 0; i < ITENS_POR_THREAD; i++) {
+                    resultados.add(operacao.executa(numeroDaThread, i));
+                }
+                return resultados;
+            }));
+        }
+
+        final var inicio = System.nanoTime();
+        largada.countDown();
+        final var resultados = new ArrayList<Boolean>();
+        for (var futuro : futuros) {
+            resultados.addAll(futuro.get(60, TimeUnit.SECONDS));
+        }
+        final var segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        executor.shutdown();
+
+        log.info("{} alterações no mesmo carrinho com {} threads: {} alterações/s, {} aceitas",
+                resultados.size(), THREADS, Math.round(resultados.size() / segundos),
+                resultados.stream().filter(Boolean::booleanValue).count());
+        return resultados;
+    }
+
+    private interface Operacao {
+        boolean executa(int thread, int i);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.fiap.techchallenge5.integrados;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Mesmos cenários de {@link CarrinhoConcorrenciaIT} com a escrita do carrinho pelos repositórios JPA.
+ * As alterações do mesmo usuário passam pela trava do carrinho, então o lock otimista (versão)
+ * só entra em ação entre instâncias e todas as alterações devem ser aceitas.
+ */
+@TestPropertySource(properties = "api.carrinho.escrita.modo=jpa")
+public class CarrinhoConcorrenciaJpaIT extends CarrinhoConcorrenciaIT {
+
+}
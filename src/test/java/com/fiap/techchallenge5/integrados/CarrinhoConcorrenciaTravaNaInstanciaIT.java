@@ -0,0 +1,74 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoEscritaRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesmos cenários de {@link CarrinhoConcorrenciaIT} sem a trava do carrinho no banco. Sem ela a escrita SQL
+ * trava a linha do carrinho antes do upsert do item, então escritas do mesmo usuário vindas de instâncias
+ * diferentes (aqui, transações que não passam pela trava da instância) não calculam a diferença do valor total
+ * com o preço anterior desatualizado.
+ */
+@TestPropertySource(properties = "api.carrinho.escrita.trava=instancia")
+public class CarrinhoConcorrenciaTravaNaInstanciaIT extends CarrinhoConcorrenciaIT {
+
+    private static final int INSTANCIAS = 8;
+    private static final int ALTERACOES_POR_INSTANCIA = 25;
+
+    @Autowired
+    CarrinhoEscritaRepository repositoryEscrita;
+
+    @Autowired
+    TransactionOperations transacao;
+
+    @Test
+    public void adicionaItem_mesmoItemEmInstanciasDiferentes_valorTotalIgualASomaDosItens() throws Exception {
+        // preparação
+        Assertions.assertTrue(this.service.insere(new AdicionaItemDTO(1000L, 1L), USUARIO));
+        final var executor = Executors.newFixedThreadPool(INSTANCIAS);
+        final var largada = new CountDownLatch(1);
+        final var futuros = new ArrayList<Future<Void>>();
+
+        // execução
+        for (int instancia = 0; instancia < INSTANCIAS; instancia++) {
+            final var preco = new BigDecimal(instancia + 1);
+            futuros.add(executor.submit((Callable<Void>) () -> {
+                largada.await();
+                for (int i = 0; i < ALTERACOES_POR_INSTANCIA; i++) {
+                    final var ean = 1000L + i % 3;
+                    this.transacao.executeWithoutResult(status -> this.repositoryEscrita.adicionaItem("teste", ean, preco));
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (var futuro : futuros) {
+            futuro.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // avaliação
+        final var carrinho = this.repositoryCarrinho.findByUsuarioAndStatus("teste", StatusEnum.ABERTO).orElseThrow();
+        final var somaDosItens = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinho.getId())
+                .stream()
+                .map(ItensNoCarrinhoEntity::getPrecoTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Assertions.assertEquals(0, carrinho.getValorTotal().compareTo(somaDosItens));
+    }
+
+}
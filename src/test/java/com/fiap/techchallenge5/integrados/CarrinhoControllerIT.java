@@ -2,20 +2,26 @@ package com.fiap.techchallenge5.integrados;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
 import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
 import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository;
 import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
 import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
 import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -29,9 +35,11 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.*;
+import static com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes.CABECALHO_IDEMPOTENCIA;
 
 
 @AutoConfigureMockMvc
@@ -59,12 +67,46 @@ public class CarrinhoControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    CarrinhoConsulta consultaCarrinho;
+
+    @Autowired
+    RespostasIdempotentes respostasIdempotentes;
+
+    @Autowired
+    RespostaIdempotenteRepository repositoryRespostas;
+
+    @Autowired
+    MeterRegistry registry;
+
     private final String token = JwtUtil.geraJwt();
 
     @BeforeEach
     void inicializaLimpezaDoDatabase() {
         this.repositoryCarrinho.deleteAll();
         this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+        this.consultaCarrinho.invalidaTodos();
+        this.respostasIdempotentes.invalidaTodos();
+    }
+
+    @AfterEach
+    void conciliaValorTotalDosCarrinhos() {
+        this.repositoryCarrinho.findAll().forEach(carrinho -> {
+            final var somaDosItens = this.repositoryItensNoCarrinho.findByIdIdCarrinho(carrinho.getId())
+                    .stream()
+                    .map(ItensNoCarrinhoEntity::getPrecoTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            Assertions.assertEquals(0, somaDosItens.compareTo(carrinho.getValorTotal()),
+                    "valorTotal do carrinho " + carrinho.getId() + " diferente da soma dos itens");
+        });
     }
 
     @AfterAll
@@ -98,7 +140,7 @@ public class CarrinhoControllerIT {
                 .withDefaultPrettyPrinter();
         var jsonRequest = objectMapper.writeValueAsString(request);
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(5, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
                         .header("Authorization", "Bearer " + this.token)
                         .content(jsonRequest)
@@ -106,7 +148,7 @@ public class CarrinhoControllerIT {
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isCreated()
-                );
+                ));
 
         var carrinho = this.repositoryCarrinho.findAll().get(0);
         var itensDoCarrinho = this.repositoryItensNoCarrinho.findAll();
@@ -122,6 +164,108 @@ public class CarrinhoControllerIT {
         Assertions.assertEquals(carrinho.getId(), itensDoCarrinho.get(0).getId().getIdCarrinho());
     }
 
+    @Test
+    public void insere_deveRetornar201_mesmaIdempotencyKeyEmOutraInstancia_naoSalvaNovamente() throws Exception {
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                        );
+
+        var chaveIdempotencia = UUID.randomUUID().toString();
+        var objectMapper = this.objectMapper
+                .writer()
+                .withDefaultPrettyPrinter();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .header(CABECALHO_IDEMPOTENCIA, chaveIdempotencia)
+                        .content(objectMapper.writeValueAsString(new AdicionaItemDTO(7894900011517L, 5L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        // a repetição chega em outra instância: só a resposta guardada no banco é conhecida
+        this.respostasIdempotentes.invalidaTodos();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .header(CABECALHO_IDEMPOTENCIA, chaveIdempotencia)
+                        .content(objectMapper.writeValueAsString(new AdicionaItemDTO(7894900011517L, 5L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        // a mesma chave com outro corpo não é uma repetição
+        this.respostasIdempotentes.invalidaTodos();
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .header(CABECALHO_IDEMPOTENCIA, chaveIdempotencia)
+                        .content(objectMapper.writeValueAsString(new AdicionaItemDTO(7894900011517L, 7L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isUnprocessableEntity()
+                );
+
+        var carrinho = this.repositoryCarrinho.findAll().get(0);
+        var itensDoCarrinho = this.repositoryItensNoCarrinho.findAll();
+
+        Assertions.assertEquals(new BigDecimal("500.00"), carrinho.getValorTotal());
+        Assertions.assertEquals(1, itensDoCarrinho.size());
+        Assertions.assertEquals(new BigDecimal("500.00"), itensDoCarrinho.get(0).getPrecoTotal());
+    }
+
+    @Test
+    public void insere_deveRetornar409_mesmaIdempotencyKeyEmAndamentoEmOutraInstancia_naoSalvaNaBaseDeDados() throws Exception {
+
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                        );
+
+        // outra instância reservou a chave e ainda está executando a requisição original
+        var chaveIdempotencia = UUID.randomUUID().toString();
+        this.repositoryRespostas.reserva("insere:teste:" + chaveIdempotencia, "hash", LocalDateTime.now().plusMinutes(1));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .header(CABECALHO_IDEMPOTENCIA, chaveIdempotencia)
+                        .content(this.objectMapper.writeValueAsString(new AdicionaItemDTO(7894900011517L, 5L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isConflict()
+                );
+
+        Assertions.assertTrue(this.repositoryCarrinho.findAll().isEmpty());
+    }
+
     @Test
     public void insere_deveRetornar201_carrinhoComItens_salvaNaBaseDeDados() throws Exception {
         final var carrinhoSalvo = this.repositoryCarrinho.save(
@@ -164,7 +308,7 @@ public class CarrinhoControllerIT {
                 .withDefaultPrettyPrinter();
         var jsonRequest = objectMapper.writeValueAsString(request);
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(3, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
                         .header("Authorization", "Bearer " + this.token)
                         .content(jsonRequest)
@@ -172,7 +316,7 @@ public class CarrinhoControllerIT {
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isCreated()
-                );
+                ));
 
         var carrinho = this.repositoryCarrinho.findAll().get(0);
         var itensDoCarrinho = this.repositoryItensNoCarrinho.findAll();
@@ -249,7 +393,7 @@ public class CarrinhoControllerIT {
                 .withDefaultPrettyPrinter();
         var jsonRequest = objectMapper.writeValueAsString(request);
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(0, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
                         .header("Authorization", "Bearer " + this.token)
                         .content(jsonRequest)
@@ -257,7 +401,7 @@ public class CarrinhoControllerIT {
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isConflict()
-                );
+                ));
 
         Assertions.assertEquals(0, this.repositoryCarrinho.findAll().size());
         Assertions.assertEquals(0, this.repositoryItensNoCarrinho.findAll().size());
@@ -434,14 +578,14 @@ public class CarrinhoControllerIT {
                         true
                 );
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(3, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.delete(URL_CARRINHO_COM_EAN.replace("{ean}", "123456"))
                         .header("Authorization", "Bearer " + this.token)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isOk()
-                );
+                ));
 
         var carrinho = this.repositoryCarrinho.findAll().get(0);
         var itensDoCarrinho = this.repositoryItensNoCarrinho.findAll();
@@ -574,14 +718,14 @@ public class CarrinhoControllerIT {
                         true
                 );
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(4, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.delete(URL_CARRINHO_COM_EAN.replace("{ean}", "123456"))
                         .header("Authorization", "Bearer " + this.token)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isOk()
-                );
+                ));
 
         Assertions.assertEquals(0, this.repositoryCarrinho.findAll().size());
         Assertions.assertEquals(0, this.repositoryItensNoCarrinho.findAll().size());
@@ -786,14 +930,14 @@ public class CarrinhoControllerIT {
                         true
                 );
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(1, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
                         .header("Authorization", "Bearer " + this.token)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isOk()
-                );
+                ));
 
 
         var carrinho = this.repositoryCarrinho.findAll().get(0);
@@ -806,6 +950,113 @@ public class CarrinhoControllerIT {
         Assertions.assertEquals(1, itensDoCarrinho.size());
     }
 
+    @Test
+    public void disponivelParaPagamento_deveRetornar200_refleteItemInseridoDepoisDaConsulta() throws Exception {
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+        Mockito.when(this.clientItem.pegaItem(7894900011518L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011518L,
+                                new BigDecimal("50.00")
+                        )
+                );
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        this.insereItem(new AdicionaItemDTO(7894900011517L, 1L));
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.valorTotal").value(100.00));
+
+        this.insereItem(new AdicionaItemDTO(7894900011518L, 2L));
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$.valorTotal").value(200.00))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.itens.length()").value(2));
+    }
+
+    @Test
+    public void disponivelParaPagamento_deveRetornar200_refleteAlteracaoFeitaPorOutraInstancia() throws Exception {
+        final var carrinhoSalvo = this.repositoryCarrinho.save(
+                CarrinhoEntity.builder()
+                        .usuario("teste")
+                        .status(StatusEnum.ABERTO)
+                        .dataDeCriacao(LocalDateTime.now())
+                        .valorTotal(new BigDecimal("500.00"))
+                        .build()
+        );
+        this.repositoryItensNoCarrinho.save(
+                ItensNoCarrinhoEntity.builder()
+                        .id(ItensNoCarrinhoId.builder()
+                                .idCarrinho(carrinhoSalvo.getId())
+                                .ean(7894900011517L)
+                                .build())
+                        .precoTotal(new BigDecimal("500.00"))
+                        .build()
+        );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.valorTotal").value(500.00));
+        new ComandosSql(this.registry).noMaximo(1, () -> this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.valorTotal").value(500.00)));
+
+        final var desatualizados = this.registry.counter("carrinho.disponivel.desatualizados");
+        final var desatualizadosAntes = desatualizados.count();
+
+        // outra instância altera o carrinho sem passar pelo cache desta
+        this.repositoryItensNoCarrinho.save(
+                ItensNoCarrinhoEntity.builder()
+                        .id(ItensNoCarrinhoId.builder()
+                                .idCarrinho(carrinhoSalvo.getId())
+                                .ean(7894900011518L)
+                                .build())
+                        .precoTotal(new BigDecimal("100.00"))
+                        .build()
+        );
+        final var carrinhoAlterado = this.repositoryCarrinho.findById(carrinhoSalvo.getId()).orElseThrow();
+        carrinhoAlterado.setValorTotal(new BigDecimal("600.00"));
+        this.repositoryCarrinho.save(carrinhoAlterado);
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$.valorTotal").value(600.00))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.itens.length()").value(2));
+        Assertions.assertEquals(desatualizadosAntes + 1, desatualizados.count());
+    }
+
     @Test
     public void disponivelParaPagamento_deveRetornar204_carrinhoFinalizado() throws Exception {
         final var carrinhoSalvo = this.repositoryCarrinho.save(
@@ -858,14 +1109,14 @@ public class CarrinhoControllerIT {
                         true
                 );
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(1, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.get(URL_CARRINHO_DISPONIVEL_PARA_PAGAMENTO)
                         .header("Authorization", "Bearer " + this.token)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isNoContent()
-                );
+                ));
 
         Assertions.assertEquals(0, this.repositoryCarrinho.findAll().size());
         Assertions.assertEquals(0, this.repositoryItensNoCarrinho.findAll().size());
@@ -1009,14 +1260,14 @@ public class CarrinhoControllerIT {
                         true
                 );
 
-        this.mockMvc
+        new ComandosSql(this.registry).noMaximo(3, () -> this.mockMvc
                 .perform(MockMvcRequestBuilders.put(URL_CARRINHO_FINALIZA)
                         .header("Authorization", "Bearer " + this.token)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers
                         .status()
                         .isOk()
-                );
+                ));
 
 
         var carrinho = this.repositoryCarrinho.findAll().get(0);
@@ -1259,4 +1510,16 @@ public class CarrinhoControllerIT {
         );
     }
 
+    private void insereItem(final AdicionaItemDTO request) throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(this.objectMapper.writeValueAsString(request)))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.fiap.techchallenge5.integrados;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+
+import static com.fiap.techchallenge5.infrastructure.metricas.ContadorDeComandosSql.METRICA_COMANDOS;
+
+/**
+ * Orçamento de comandos SQL de uma chamada: falha o teste se a chamada enviar ao banco mais comandos do que o previsto.
+ */
+public class ComandosSql {
+
+    private final MeterRegistry registry;
+
+    public ComandosSql(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void noMaximo(final long orcamento,
+                         final Chamada chamada) throws Exception {
+        final var antes = this.executados();
+        chamada.executa();
+        final var executados = this.executados() - antes;
+        Assertions.assertTrue(executados <= orcamento,
+                "executou " + executados + " comandos SQL, o orçamento é " + orcamento);
+    }
+
+    public long executados() {
+        return (long) this.registry.find(METRICA_COMANDOS)
+                .counters()
+                .stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    @FunctionalInterface
+    public interface Chamada {
+        void executa() throws Exception;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.URL_CARRINHO;
+
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest
+public class MetricasIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @MockBean
+    ItemClient clientItem;
+
+    @Autowired
+    @MockBean
+    UsuarioClient clientUsuario;
+
+    @Autowired
+    CarrinhoRepository repositoryCarrinho;
+
+    @Autowired
+    ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final String token = JwtUtil.geraJwt();
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+    }
+
+    @AfterEach
+    void finalizaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+    }
+
+    @Test
+    public void prometheus_deveRetornar200SemToken_comHistogramaDasEtapasDoInsere() throws Exception {
+        Mockito.when(this.clientItem.pegaItem(7894900011517L, "Bearer " + this.token))
+                .thenReturn(
+                        new ItemDTO(
+                                7894900011517L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", "Bearer " + this.token))
+                .thenReturn(
+                        true
+                );
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .content(this.objectMapper.writeValueAsString(new AdicionaItemDTO(7894900011517L, 1L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers
+                        .content()
+                        .string(Matchers.allOf(
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"item\",operacao=\"insere\",resultado=\"sucesso\""),
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"usuario\",operacao=\"insere\",resultado=\"sucesso\""),
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"escrita\",operacao=\"insere\",resultado=\"sucesso\""),
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"transacao\",operacao=\"insere\",resultado=\"sucesso\""),
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"total\",operacao=\"insere\",resultado=\"sucesso\""),
+                                Matchers.containsString("carrinho_etapa_seconds_bucket{etapa=\"token\",operacao=\"autenticacao\",resultado=\"sucesso\""),
+                                Matchers.containsString("http_server_requests_seconds_bucket")
+                        ))
+                );
+    }
+
+    @Test
+    public void health_deveRetornar200_semToken() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get("/actuator/health"))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isOk()
+                )
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    public void metrics_deveRetornar401_semToken() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isUnauthorized()
+                );
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController.URL_CARRINHO;
+import static com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas.METRICA_ETAPA;
+import static com.fiap.techchallenge5.integrados.ServicosSimulados.PRIMEIRO_EAN;
+
+/**
+ * Carrinho chamando os {@link ServicosSimulados} pelos clientes Feign de verdade, com tempo limite de leitura curto.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ServicosRemotosIT {
+
+    private static final long TEMPO_LIMITE_MS = 500;
+    private static final ServicosSimulados servicos = ServicosSimulados.inicia(0, 0);
+
+    @DynamicPropertySource
+    static void apontaParaOsServicosSimulados(final DynamicPropertyRegistry propriedades) {
+        propriedades.add("api.item.url", servicos::urlItem);
+        propriedades.add("api.usuario.url", servicos::urlUsuario);
+        propriedades.add("spring.cloud.openfeign.client.config.default.read-timeout", () -> TEMPO_LIMITE_MS);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    CarrinhoRepository repositoryCarrinho;
+
+    @Autowired
+    ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    CarrinhoConsulta consultaCarrinho;
+
+    @Autowired
+    RespostasIdempotentes respostasIdempotentes;
+
+    @Autowired
+    MeterRegistry registry;
+
+    private final String token = JwtUtil.geraJwt();
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+        this.consultaCarrinho.invalidaTodos();
+        this.respostasIdempotentes.invalidaTodos();
+        servicos.reinicia();
+    }
+
+    @AfterAll
+    void finalizaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        servicos.close();
+    }
+
+    @Test
+    public void insere_deveRetornar201_itemDoCatalogoSimulado() throws Exception {
+        this.insere(PRIMEIRO_EAN + 10, 2L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        var carrinho = this.repositoryCarrinho.findAll().get(0);
+
+        Assertions.assertEquals(ServicosSimulados.preco(PRIMEIRO_EAN + 10).multiply(new BigDecimal("2")), carrinho.getValorTotal());
+        Assertions.assertEquals(1, servicos.item().chamadas());
+        Assertions.assertEquals(1, servicos.usuario().chamadas());
+    }
+
+    @Test
+    public void insere_deveRetornar409_itemForaDoCatalogo() throws Exception {
+        this.insere(PRIMEIRO_EAN - 1, 1L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isConflict()
+                );
+
+        Assertions.assertEquals(0, this.repositoryCarrinho.count());
+    }
+
+    @Test
+    public void insere_deveRetornar201_itemLento_etapaDoItemMedeALatencia() throws Exception {
+        servicos.item().latencia(ServicosSimulados.Latencia.fixa(Duration.ofMillis(300)));
+
+        this.insere(PRIMEIRO_EAN + 20, 1L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isCreated()
+                );
+
+        var etapaItem = this.registry.get(METRICA_ETAPA)
+                .tag("operacao", "insere")
+                .tag("etapa", "item")
+                .timer();
+        Assertions.assertTrue(etapaItem.max(TimeUnit.MILLISECONDS) >= 300);
+    }
+
+    @Test
+    public void insere_deveRetornar503_servicoDeItensComErro() throws Exception {
+        servicos.item().taxaDeErro(1.0);
+
+        this.insere(PRIMEIRO_EAN + 30, 1L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isServiceUnavailable()
+                );
+
+        Assertions.assertEquals(0, this.repositoryCarrinho.count());
+    }
+
+    @Test
+    public void insere_deveRetornar503NoTempoLimite_servicoDeItensTravado() throws Exception {
+        servicos.item().taxaDeTravamento(1.0, Duration.ofSeconds(10));
+
+        var inicio = System.nanoTime();
+        this.insere(PRIMEIRO_EAN + 40, 1L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isServiceUnavailable()
+                );
+        var duracao = Duration.ofNanos(System.nanoTime() - inicio);
+
+        Assertions.assertTrue(duracao.toMillis() < TEMPO_LIMITE_MS + 2000, "Demorou " + duracao);
+        Assertions.assertEquals(0, this.repositoryCarrinho.count());
+    }
+
+    @Test
+    public void insere_deveRetornar409_servicoDeUsuariosComErro() throws Exception {
+        servicos.usuario().taxaDeErro(1.0);
+
+        this.insere(PRIMEIRO_EAN + 50, 1L)
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isConflict()
+                );
+
+        Assertions.assertEquals(0, this.repositoryCarrinho.count());
+    }
+
+    @Test
+    public void insere_caudaDeLatencia_travamentosViram503NoTempoLimite() throws Exception {
+        servicos.item()
+                .latencia(ServicosSimulados.Latencia.logNormal(Duration.ofMillis(20), 0.5))
+                .taxaDeTravamento(0.2, Duration.ofSeconds(10));
+        var requisicoes = 20;
+        var criados = 0;
+        var indisponiveis = 0;
+        var maisLenta = Duration.ZERO;
+
+        for (int i = 0; i < requisicoes; i++) {
+            var inicio = System.nanoTime();
+            var status = this.insere(PRIMEIRO_EAN + 100 + i, 1L)
+                    .andReturn()
+                    .getResponse()
+                    .getStatus();
+            var duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            if (duracao.compareTo(maisLenta) > 0) {
+                maisLenta = duracao;
+            }
+            if (status == 201) {
+                criados++;
+            } else if (status == 503) {
+                indisponiveis++;
+            }
+        }
+
+        Assertions.assertEquals(requisicoes, criados + indisponiveis);
+        Assertions.assertEquals(servicos.item().travamentos(), indisponiveis);
+        Assertions.assertTrue(maisLenta.toMillis() < TEMPO_LIMITE_MS + 2000, "Mais lenta demorou " + maisLenta);
+        Assertions.assertEquals(criados, this.repositoryItensNoCarrinho.count());
+    }
+
+    private ResultActions insere(final long ean,
+                                 final long quantidade) throws Exception {
+        var jsonRequest = this.objectMapper.writeValueAsString(new AdicionaItemDTO(
+                ean,
+                quantidade
+        ));
+
+        return this.mockMvc
+                .perform(MockMvcRequestBuilders.post(URL_CARRINHO)
+                        .header("Authorization", "Bearer " + this.token)
+                        .content(jsonRequest)
+                        .contentType(MediaType.APPLICATION_JSON));
+    }
+
+}
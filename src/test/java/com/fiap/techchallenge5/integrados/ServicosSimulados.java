@@ -0,0 +1,251 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serviços de item e usuário rodando na própria JVM, no lugar dos microsserviços reais, para testes de integração
+ * e de carga sem rede externa.
+ * <p>
+ * O catálogo é sintético: os EANs de {@link #PRIMEIRO_EAN} até {@code PRIMEIRO_EAN + catalogo - 1} existem, com o
+ * preço de {@link #preco(long)}; os demais respondem 204, como um item não encontrado. Todo login existe, menos os
+ * que começam com {@link #PREFIXO_INEXISTENTE}.
+ * <p>
+ * Cada serviço tem latência sorteada a cada chamada, uma taxa de erros (503) e uma taxa de travamentos, em que a
+ * resposta só sai depois do tempo de travamento, para estourar o tempo limite do cliente.
+ */
+public class ServicosSimulados implements AutoCloseable {
+
+    public static final long PRIMEIRO_EAN = 7890000000001L;
+    public static final String PREFIXO_INEXISTENTE = "inexistente";
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final HttpServer servidorItem;
+    private final HttpServer servidorUsuario;
+    private final Servico item = new Servico();
+    private final Servico usuario = new Servico();
+    private volatile long catalogo = 100_000;
+
+    private ServicosSimulados(final int portaItem,
+                              final int portaUsuario) throws IOException {
+        this.servidorItem = this.inicia(portaItem, "/item/", this.item, this::respondeItem);
+        this.servidorUsuario = this.inicia(portaUsuario, "/usuario/", this.usuario, this::respondeUsuario);
+    }
+
+    /**
+     * Porta 0 sobe o serviço numa porta livre; a URL fica em {@link #urlItem()} e {@link #urlUsuario()}.
+     */
+    public static ServicosSimulados inicia(final int portaItem,
+                                           final int portaUsuario) {
+        try {
+            return new ServicosSimulados(portaItem, portaUsuario);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível subir os serviços simulados", e);
+        }
+    }
+
+    public static BigDecimal preco(final long ean) {
+        return BigDecimal.valueOf(ean % 100 + 1).setScale(2);
+    }
+
+    public Servico item() {
+        return this.item;
+    }
+
+    public Servico usuario() {
+        return this.usuario;
+    }
+
+    public String urlItem() {
+        return "http://localhost:" + this.servidorItem.getAddress().getPort() + "/item";
+    }
+
+    public String urlUsuario() {
+        return "http://localhost:" + this.servidorUsuario.getAddress().getPort() + "/usuario";
+    }
+
+    public ServicosSimulados catalogo(final long tamanho) {
+        this.catalogo = tamanho;
+        return this;
+    }
+
+    /**
+     * Volta os dois serviços a responder na hora, sem erros, e zera as chamadas.
+     */
+    public void reinicia() {
+        this.item.reinicia();
+        this.usuario.reinicia();
+    }
+
+    @Override
+    public void close() {
+        this.servidorItem.stop(0);
+        this.servidorUsuario.stop(0);
+        this.threads.shutdownNow();
+    }
+
+    private HttpServer inicia(final int porta,
+                              final String caminho,
+                              final Servico servico,
+                              final Resposta resposta) throws IOException {
+        final var servidor = HttpServer.create(new InetSocketAddress("localhost", porta), 0);
+        servidor.setExecutor(this.threads);
+        servidor.createContext(caminho, troca -> {
+            try (troca) {
+                servico.chamadas.incrementAndGet();
+                final var sorteio = ThreadLocalRandom.current().nextDouble();
+                if (sorteio < servico.taxaDeErro) {
+                    servico.erros.incrementAndGet();
+                    troca.sendResponseHeaders(503, -1);
+                    return;
+                }
+                if (sorteio < servico.taxaDeErro + servico.taxaDeTravamento) {
+                    servico.travamentos.incrementAndGet();
+                    Thread.sleep(servico.travamento.toMillis());
+                } else {
+                    Thread.sleep(servico.latencia.sorteia().toMillis());
+                }
+                resposta.responde(troca, troca.getRequestURI().getPath().substring(caminho.length()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        servidor.start();
+        return servidor;
+    }
+
+    private void respondeItem(final HttpExchange troca,
+                              final String ean) throws IOException {
+        final long numero;
+        try {
+            numero = Long.parseLong(ean);
+        } catch (NumberFormatException e) {
+            troca.sendResponseHeaders(400, -1);
+            return;
+        }
+        if (numero < PRIMEIRO_EAN || numero >= PRIMEIRO_EAN + this.catalogo) {
+            troca.sendResponseHeaders(204, -1);
+            return;
+        }
+        responde(troca, "{\"ean\":" + numero + ",\"preco\":" + preco(numero).toPlainString() + "}");
+    }
+
+    private void respondeUsuario(final HttpExchange troca,
+                                 final String login) throws IOException {
+        if (login.startsWith(PREFIXO_INEXISTENTE)) {
+            troca.sendResponseHeaders(204, -1);
+            return;
+        }
+        responde(troca, String.valueOf(true));
+    }
+
+    private static void responde(final HttpExchange troca,
+                                 final String corpo) throws IOException {
+        final var bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().add("Content-Type", "application/json");
+        troca.sendResponseHeaders(200, bytes.length);
+        troca.getResponseBody().write(bytes);
+    }
+
+    @FunctionalInterface
+    private interface Resposta {
+        void responde(HttpExchange troca, String parametro) throws IOException;
+    }
+
+    /**
+     * Comportamento de um dos serviços; pode ser trocado com o serviço no ar.
+     */
+    public static class Servico {
+
+        private volatile Latencia latencia = Latencia.nenhuma();
+        private volatile double taxaDeErro;
+        private volatile double taxaDeTravamento;
+        private volatile Duration travamento = Duration.ofSeconds(30);
+        private final AtomicLong chamadas = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+        private final AtomicLong travamentos = new AtomicLong();
+
+        public Servico latencia(final Latencia latencia) {
+            this.latencia = latencia;
+            return this;
+        }
+
+        public Servico taxaDeErro(final double taxa) {
+            this.taxaDeErro = taxa;
+            return this;
+        }
+
+        public Servico taxaDeTravamento(final double taxa,
+                                        final Duration travamento) {
+            this.taxaDeTravamento = taxa;
+            this.travamento = travamento;
+            return this;
+        }
+
+        public long chamadas() {
+            return this.chamadas.get();
+        }
+
+        public long erros() {
+            return this.erros.get();
+        }
+
+        public long travamentos() {
+            return this.travamentos.get();
+        }
+
+        private void reinicia() {
+            this.latencia = Latencia.nenhuma();
+            this.taxaDeErro = 0;
+            this.taxaDeTravamento = 0;
+            this.chamadas.set(0);
+            this.erros.set(0);
+            this.travamentos.set(0);
+        }
+
+    }
+
+    /**
+     * Distribuição da latência de cada resposta.
+     */
+    @FunctionalInterface
+    public interface Latencia {
+
+        Duration sorteia();
+
+        static Latencia nenhuma() {
+            return () -> Duration.ZERO;
+        }
+
+        static Latencia fixa(final Duration latencia) {
+            return () -> latencia;
+        }
+
+        static Latencia uniforme(final Duration minima,
+                                 final Duration maxima) {
+            return () -> Duration.ofMillis(ThreadLocalRandom.current().nextLong(minima.toMillis(), maxima.toMillis() + 1));
+        }
+
+        /**
+         * Cauda longa: metade das respostas abaixo da mediana e poucas muito acima dela, tanto mais quanto maior a
+         * dispersão (desvio padrão do logaritmo; 0 é a latência fixa na mediana).
+         */
+        static Latencia logNormal(final Duration mediana,
+                                  final double dispersao) {
+            return () -> Duration.ofMillis(Math.round(
+                    mediana.toMillis() * Math.exp(dispersao * ThreadLocalRandom.current().nextGaussian())));
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Trava do carrinho no banco, como se cada transação viesse de uma instância diferente do serviço
+ * (sem passar pela trava local da instância).
+ */
+@SpringBootTest
+public class TravaCarrinhoIT {
+
+    @Autowired
+    TravaCarrinhoRepository travaCarrinho;
+
+    @Autowired
+    TransactionOperations transacao;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    public void trava_mesmoUsuarioEmOutraTransacao_esperaOCommit() throws Exception {
+        // preparação
+        var travado = new CountDownLatch(1);
+        var liberadoEm = new AtomicLong();
+        var executor = Executors.newSingleThreadExecutor();
+        var outraInstancia = executor.submit(() -> this.transacao.executeWithoutResult(status -> {
+            this.travaCarrinho.trava("teste");
+            travado.countDown();
+            this.espera(300);
+            liberadoEm.set(System.nanoTime());
+        }));
+        Assertions.assertTrue(travado.await(5, TimeUnit.SECONDS));
+        var esperasAntes = this.registry.get("trava.espera").tag("trava", "carrinho.banco").timer().count();
+
+        // execução
+        var obtidoEm = this.transacao.execute(status -> {
+            this.travaCarrinho.trava("teste");
+            return System.nanoTime();
+        });
+
+        // avaliação
+        outraInstancia.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        Assertions.assertTrue(obtidoEm > liberadoEm.get());
+        Assertions.assertEquals(esperasAntes + 1, this.registry.get("trava.espera").tag("trava", "carrinho.banco").timer().count());
+    }
+
+    @Test
+    public void trava_outroUsuario_naoEspera() throws Exception {
+        // preparação
+        var travado = new CountDownLatch(1);
+        var libera = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        var outraInstancia = executor.submit(() -> this.transacao.executeWithoutResult(status -> {
+            this.travaCarrinho.trava("teste");
+            travado.countDown();
+            try {
+                libera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        Assertions.assertTrue(travado.await(5, TimeUnit.SECONDS));
+
+        // execução
+        var outroUsuario = executor.submit(() -> this.transacao.executeWithoutResult(
+                status -> this.travaCarrinho.trava("outro")
+        ));
+
+        // avaliação
+        try {
+            outroUsuario.get(2, TimeUnit.SECONDS);
+        } finally {
+            libera.countDown();
+        }
+        outraInstancia.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    private void espera(final long milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
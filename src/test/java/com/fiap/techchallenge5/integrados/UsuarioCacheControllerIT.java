@@ -0,0 +1,83 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static com.fiap.techchallenge5.infrastructure.usuario.controller.UsuarioCacheController.URL_USUARIO_CACHE_COM_LOGIN;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+public class UsuarioCacheControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @MockBean
+    UsuarioClient clientUsuario;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @BeforeEach
+    void inicializaLimpezaDoCache() {
+        this.consultaUsuario.invalidaTodos();
+    }
+
+    @Test
+    public void invalida_deveRetornar204_usuarioVoltaASerBuscado() throws Exception {
+        final var token = "Bearer " + JwtUtil.geraJwt();
+        Mockito.when(this.clientUsuario.usuarioExiste("teste", token))
+                .thenReturn(
+                        false,
+                        true
+                );
+        Assertions.assertFalse(this.consultaUsuario.usuarioExiste("teste", token));
+
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_USUARIO_CACHE_COM_LOGIN, "teste")
+                        .header("Authorization", token))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isNoContent()
+                );
+
+        Assertions.assertTrue(this.consultaUsuario.usuarioExiste("teste", token));
+        verify(this.clientUsuario, times(2)).usuarioExiste("teste", token);
+    }
+
+    @Test
+    public void invalida_deveRetornar403_roleUSER() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_USUARIO_CACHE_COM_LOGIN, "teste")
+                        .header("Authorization", "Bearer " + JwtUtil.geraJwt("USER", "teste")))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isForbidden()
+                );
+    }
+
+    @Test
+    public void invalida_deveRetornar401_semToken() throws Exception {
+        this.mockMvc
+                .perform(MockMvcRequestBuilders.delete(URL_USUARIO_CACHE_COM_LOGIN, "teste"))
+                .andExpect(MockMvcResultMatchers
+                        .status()
+                        .isUnauthorized()
+                );
+    }
+
+}
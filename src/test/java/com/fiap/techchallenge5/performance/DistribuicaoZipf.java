@@ -0,0 +1,45 @@
+package com.fiap.techchallenge5.performance;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorteia posições de 1 a {@code quantidade} com probabilidade proporcional a {@code 1 / posicao^expoente}:
+ * poucos itens concentram a maior parte dos sorteios e a maioria aparece raramente, como a popularidade dos
+ * produtos de uma loja. Com expoente 0 todos têm a mesma chance.
+ */
+public class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    public DistribuicaoZipf(final int quantidade,
+                            final double expoente) {
+        if (quantidade <= 0 || expoente < 0) {
+            throw new IllegalArgumentException("QUANTIDADE DEVE SER MAIOR QUE ZERO E EXPOENTE NAO PODE SER NEGATIVO!");
+        }
+        this.acumulada = new double[quantidade];
+        var soma = 0.0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += 1.0 / Math.pow(i + 1, expoente);
+            this.acumulada[i] = soma;
+        }
+        for (int i = 0; i < quantidade; i++) {
+            this.acumulada[i] /= soma;
+        }
+    }
+
+    public int sorteia() {
+        final var sorteio = ThreadLocalRandom.current().nextDouble();
+        var inicio = 0;
+        var fim = this.acumulada.length - 1;
+        while (inicio < fim) {
+            final var meio = (inicio + fim) >>> 1;
+            if (this.acumulada[meio] < sorteio) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio + 1;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.fiap.techchallenge5.performance;
+
+import jakarta.persistence.*;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+/**
+ * Compara linhas/s inseridas pelo Hibernate com id IDENTITY e com id por sequência pooled-lo em lotes.
+ * <p>
+ * Não roda no {@code mvn test}; execute com {@code mvn test -Dtest=GeracaoDeIdBenchmark}
+ * (H2 em memória) ou informe outro banco com {@code -Dbenchmark.url}, {@code -Dbenchmark.usuario}
+ * e {@code -Dbenchmark.senha}.
+ */
+@Slf4j
+public class GeracaoDeIdBenchmark {
+
+    private static final String URL = System.getProperty(
+            "benchmark.url", "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+    );
+    private static final String USUARIO = System.getProperty("benchmark.usuario", "sa");
+    private static final String SENHA = System.getProperty("benchmark.senha", "");
+    private static final int LINHAS = Integer.getInteger("benchmark.linhas", 20_000);
+    private static final int LOTE = 50;
+
+    @Test
+    public void comparaIdentityComSequence() {
+        try (var sessionFactory = this.criaSessionFactory()) {
+            // aquecimento
+            this.insere(sessionFactory, LINHAS / 4, CarrinhoIdentity::new);
+            this.insere(sessionFactory, LINHAS / 4, CarrinhoSequence::new);
+
+            final var identity = this.insere(sessionFactory, LINHAS, CarrinhoIdentity::new);
+            final var sequence = this.insere(sessionFactory, LINHAS, CarrinhoSequence::new);
+
+            log.info("{} - {} linhas: IDENTITY {} linhas/s, SEQUENCE pooled-lo {} linhas/s",
+                    URL, LINHAS, Math.round(identity), Math.round(sequence));
+            Assertions.assertTrue(identity > 0 && sequence > 0);
+        }
+    }
+
+    private double insere(final SessionFactory sessionFactory,
+                          final int linhas,
+                          final Function<String, Object> novoCarrinho) {
+        final var inicio = System.nanoTime();
+        sessionFactory.inTransaction(session -> {
+            for (int i = 1; i <= linhas; i++) {
+                session.persist(novoCarrinho.apply("usuario" + i));
+                if (i % LOTE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+        });
+        return linhas / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+    }
+
+    private SessionFactory criaSessionFactory() {
+        return new Configuration()
+                .addAnnotatedClass(CarrinhoIdentity.class)
+                .addAnnotatedClass(CarrinhoSequence.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, URL)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, USUARIO)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, SENHA)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(LOTE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .buildSessionFactory();
+    }
+
+    @Entity
+    @Table(name = "bench_carrinho_identity")
+    public static class CarrinhoIdentity {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String usuario;
+        private BigDecimal valorTotal;
+
+        public CarrinhoIdentity() {}
+
+        public CarrinhoIdentity(final String usuario) {
+            this.usuario = usuario;
+            this.valorTotal = new BigDecimal("100.00");
+        }
+
+    }
+
+    @Entity
+    @Table(name = "bench_carrinho_sequence")
+    public static class CarrinhoSequence {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sq_bench_carrinho")
+        @SequenceGenerator(name = "sq_bench_carrinho", sequenceName = "sq_bench_carrinho", allocationSize = LOTE)
+        private Long id;
+        private String usuario;
+        private BigDecimal valorTotal;
+
+        public CarrinhoSequence() {}
+
+        public CarrinhoSequence(final String usuario) {
+            this.usuario = usuario;
+            this.valorTotal = new BigDecimal("100.00");
+        }
+
+    }
+
+}
@@ -1,295 +1,234 @@
 package com.fiap.techchallenge5.performance;
 
 import com.fiap.techchallenge5.integrados.JwtUtil;
+import com.fiap.techchallenge5.integrados.ServicosSimulados;
 import io.gatling.javaapi.core.ActionBuilder;
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.OpenInjectionStep;
 import io.gatling.javaapi.core.ScenarioBuilder;
 import io.gatling.javaapi.core.Simulation;
 import io.gatling.javaapi.http.HttpProtocolBuilder;
 import lombok.extern.slf4j.Slf4j;
-import org.mockserver.integration.ClientAndServer;
-import org.mockserver.model.HttpRequest;
-import org.mockserver.model.HttpResponse;
-import org.mockserver.model.MediaType;
 
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static io.gatling.javaapi.core.CoreDsl.*;
 import static io.gatling.javaapi.http.HttpDsl.http;
 import static io.gatling.javaapi.http.HttpDsl.status;
 
-
+/**
+ * Jornada de compra completa por usuário virtual: insere os itens do carrinho, às vezes remove um deles,
+ * consulta o carrinho disponível para pagamento e finaliza.
+ * <p>
+ * Cada jornada é de um dos {@code usuariosDistintos} usuários, em rodízio, com o token gerado pelo {@link JwtUtil};
+ * como o carrinho é finalizado no fim da jornada, cada volta do rodízio abre um novo carrinho para o mesmo usuário
+ * e a tabela cresce durante o teste. O rodízio precisa ser maior que o número de jornadas simultâneas, para que
+ * duas jornadas do mesmo usuário não disputem o mesmo carrinho.
+ * <p>
+ * Os EANs seguem uma {@link DistribuicaoZipf} e o tamanho do carrinho uma distribuição geométrica, ex:
+ * {@code mvn gatling:test -DusuariosDistintos=5000 -DeansDistintos=2000 -DexpoenteZipf=1.1 -DmediaItensPorCarrinho=5
+ * -DperfilDeInjecao=degraus -DusuariosPorSegundo=100 -DduracaoSegundos=120}
+ */
 @Slf4j
 public class PerformanceTestSimulation extends Simulation {
 
-    private final String token = JwtUtil.geraJwt();
-    private final String tokenTeste1 = "Bearer " + this.token;
-    private final String tokenTeste2 = "Bearer " + JwtUtil.geraJwt("USER", "novoLogin");
-    private final String usuarioDoToken3 = "loginDoGET"+System.currentTimeMillis();
-    private final String tokenTeste3 = "Bearer " + JwtUtil.geraJwt("USER", usuarioDoToken3);
-    private final String tokenTeste4 = "Bearer " + JwtUtil.geraJwt("USER", "tokenFinaliza");
-    private final ClientAndServer mockServerItem = this.criaMockServerItem(this.tokenTeste1, this.tokenTeste2, this.tokenTeste3, this.tokenTeste4);
-    private final ClientAndServer mockServerUsuario = this.criaMockServerUsuario(this.tokenTeste1, this.tokenTeste2, this.tokenTeste3, this.tokenTeste4);
+    // latência simulada dos serviços de item e usuário (mediana), ex: mvn gatling:test -DlatenciaServicosMs=200
+    private static final long LATENCIA_SERVICOS_MS = Long.getLong("latenciaServicosMs", 0L);
+    // dispersão log-normal da latência (0 é a latência fixa), ex: mvn gatling:test -DdispersaoLatenciaServicos=1.0
+    private static final double DISPERSAO_LATENCIA_SERVICOS = Double.parseDouble(System.getProperty("dispersaoLatenciaServicos", "0"));
+    // fração das chamadas aos serviços que responde 503 ou trava até estourar o tempo limite da aplicação
+    private static final double TAXA_DE_ERRO_SERVICOS = Double.parseDouble(System.getProperty("taxaDeErroServicos", "0"));
+    private static final double TAXA_DE_TRAVAMENTO_SERVICOS = Double.parseDouble(System.getProperty("taxaDeTravamentoServicos", "0"));
+    // jornadas iniciadas por segundo no patamar da carga, ex: mvn gatling:test -DusuariosPorSegundo=100
+    private static final int USUARIOS_POR_SEGUNDO = Integer.getInteger("usuariosPorSegundo", 10);
+    // rampa: sobe, mantém e desce; constante: só o patamar; degraus: sobe em degraus até o patamar
+    private static final String PERFIL_DE_INJECAO = System.getProperty("perfilDeInjecao", "rampa");
+    // duração do patamar (ou de todos os degraus) e de cada rampa
+    private static final int DURACAO_SEGUNDOS = Integer.getInteger("duracaoSegundos", 20);
+    private static final int RAMPA_SEGUNDOS = Integer.getInteger("rampaSegundos", 10);
+    private static final int DEGRAUS = Integer.getInteger("degraus", 5);
+    private static final int USUARIOS_DISTINTOS = Integer.getInteger("usuariosDistintos", 1000);
+    private static final int EANS_DISTINTOS = Integer.getInteger("eansDistintos", 500);
+    private static final double EXPOENTE_ZIPF = Double.parseDouble(System.getProperty("expoenteZipf", "1.0"));
+    private static final double MEDIA_ITENS_POR_CARRINHO = Double.parseDouble(System.getProperty("mediaItensPorCarrinho", "3"));
+    private static final int MAXIMO_ITENS_POR_CARRINHO = Integer.getInteger("maximoItensPorCarrinho", 20);
+    // chance de remover um item nas jornadas com mais de um item no carrinho
+    private static final double PROBABILIDADE_REMOCAO = Double.parseDouble(System.getProperty("probabilidadeRemocao", "0.2"));
+    private static final int P95_MS = Integer.getInteger("p95Ms", 300);
+    private static final int P99_MS = Integer.getInteger("p99Ms", 600);
+
+    private static final String INSERE = "insere item no carrinho";
+    private static final String REMOVE = "remove item no carrinho";
+    private static final String DISPONIVEL_PARA_PAGAMENTO = "carrinho disponivel para pagamento";
+    private static final String FINALIZA = "finaliza carrinho";
+
+    private final String prefixoDosUsuarios = "carga" + System.currentTimeMillis() + "-";
+    private final AtomicLong jornadas = new AtomicLong();
+    private final DistribuicaoZipf popularidadeDosEans = new DistribuicaoZipf(EANS_DISTINTOS, EXPOENTE_ZIPF);
+    private final ServicosSimulados servicos = this.iniciaServicosSimulados();
     private final HttpProtocolBuilder httpProtocol = http
             .baseUrl("http://localhost:8082");
 
-    ActionBuilder insereItemNoCarrinhoRequest = http("insere item no carrinho")
+    private final Iterator<Map<String, Object>> usuarios = Stream.generate(() -> {
+        final var usuario = this.prefixoDosUsuarios + (this.jornadas.getAndIncrement() % USUARIOS_DISTINTOS);
+        final var eans = this.sorteiaCarrinho();
+        final var remove = eans.size() > 1 && ThreadLocalRandom.current().nextDouble() < PROBABILIDADE_REMOCAO;
+        return Map.<String, Object>of(
+                "token", "Bearer " + JwtUtil.geraJwt("USER", usuario),
+                "eans", eans,
+                "remove", remove
+        );
+    }).iterator();
+
+    ActionBuilder insereItemNoCarrinhoRequest = http(INSERE)
             .post("/carrinho")
             .header("Content-Type", "application/json")
-            .header("Authorization", "${token}")
+            .header("Authorization", "#{token}")
             .body(StringBody("""
                               {
-                                "ean": ${ean},
+                                "ean": #{ean},
                                 "quantidade": 1
                               }
                     """))
             .check(status().is(201));
 
-    ActionBuilder removeItemNoCarrinhoRequest = http("remove item no carrinho")
-            .delete("/carrinho/456")
+    ActionBuilder removeItemNoCarrinhoRequest = http(REMOVE)
+            .delete("/carrinho/#{eans(0)}")
             .header("Content-Type", "application/json")
-            .header("Authorization", this.tokenTeste2)
+            .header("Authorization", "#{token}")
             .check(status().is(200));
 
-    ActionBuilder carrinhoDisponivelParaPagamentoRequest = http("carrinho disponivel para pagamento")
+    ActionBuilder carrinhoDisponivelParaPagamentoRequest = http(DISPONIVEL_PARA_PAGAMENTO)
             .get("/carrinho/disponivel-para-pagamento")
             .header("Content-Type", "application/json")
-            .header("Authorization", this.tokenTeste3)
+            .header("Authorization", "#{token}")
             .check(status().is(200));
 
-    ActionBuilder finalizaCarrinhoRequest = http("finaliza carrinho")
+    ActionBuilder finalizaCarrinhoRequest = http(FINALIZA)
             .put("/carrinho/finaliza")
             .header("Content-Type", "application/json")
-            .header("Authorization", this.tokenTeste4)
+            .header("Authorization", "#{token}")
             .check(status().is(200));
 
-    ScenarioBuilder cenarioInsereItemNoCarrinho = scenario("Insere item no carrinho")
-            .exec(session -> {
-                Map<String, Object> sessions = new HashMap<>();
-                sessions.put("ean", 123);
-                sessions.put("token", this.tokenTeste1);
-                return session.setAll(sessions);
-            })
-            .exec(insereItemNoCarrinhoRequest);
-
-    ScenarioBuilder cenarioRemoveItemNoCarrinho = scenario("Remove item no carrinho")
-            .exec(session -> {
-                Map<String, Object> sessions = new HashMap<>();
-                sessions.put("ean", 456);
-                sessions.put("token", this.tokenTeste2);
-                return session.setAll(sessions);
-            })
-            .exec(insereItemNoCarrinhoRequest)
-            .exec(removeItemNoCarrinhoRequest);
-
-    ScenarioBuilder cenarioCarrinhoDisponivelParaPagamento = scenario("Carrinho disponivel para pagamento")
-            .exec(session -> {
-                Map<String, Object> sessions = new HashMap<>();
-                sessions.put("ean", 789);
-                sessions.put("token", this.tokenTeste3);
-                return session.setAll(sessions);
-            })
-            .exec(insereItemNoCarrinhoRequest)
-            .exec(carrinhoDisponivelParaPagamentoRequest);
-
-    ScenarioBuilder cenarioFinalizaCarrinho = scenario("Finaliza carrinho")
-            .exec(session -> {
-                Map<String, Object> sessions = new HashMap<>();
-                sessions.put("ean", 333);
-                sessions.put("token", this.tokenTeste4);
-                return session.setAll(sessions);
-            })
-            .exec(insereItemNoCarrinhoRequest)
+    ScenarioBuilder cenarioJornadaDeCompra = scenario("Jornada de compra")
+            .feed(this.usuarios)
+            .foreach("#{eans}", "ean").on(
+                    exec(insereItemNoCarrinhoRequest)
+            )
+            .doIf("#{remove}").then(
+                    exec(removeItemNoCarrinhoRequest)
+            )
+            .exec(carrinhoDisponivelParaPagamentoRequest)
             .exec(finalizaCarrinhoRequest);
 
     {
 
+        log.info("Carga: perfil {}, {} jornadas/s, {} usuarios, {} EANs (zipf {}), media de {} itens por carrinho",
+                PERFIL_DE_INJECAO, USUARIOS_POR_SEGUNDO, USUARIOS_DISTINTOS, EANS_DISTINTOS, EXPOENTE_ZIPF, MEDIA_ITENS_POR_CARRINHO);
+
         setUp(
-                cenarioInsereItemNoCarrinho.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioRemoveItemNoCarrinho.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioCarrinhoDisponivelParaPagamento.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10))),
-                cenarioFinalizaCarrinho.injectOpen(
-                        rampUsersPerSec(1)
-                                .to(10)
-                                .during(Duration.ofSeconds(10)),
-                        constantUsersPerSec(10)
-                                .during(Duration.ofSeconds(20)),
-                        rampUsersPerSec(10)
-                                .to(1)
-                                .during(Duration.ofSeconds(10)))
+                cenarioJornadaDeCompra.injectOpen(this.perfilDeInjecao())
         )
                 .protocols(httpProtocol)
-                .assertions(
-                        global().responseTime().max().lt(600),
-                        global().failedRequests().count().is(0L));
+                .assertions(this.assercoes());
 
     }
 
-    private ClientAndServer criaMockServerItem(final String token1,
-                                               final String token2,
-                                               final String token3,
-                                               final String token4) {
-        final var clientAndServer = ClientAndServer.startClientAndServer(8081);
-
-        clientAndServer.when(
-               HttpRequest.request()
-                       .withMethod("GET")
-                       .withPath("/item/123")
-                       .withHeader("Authorization", token1)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody("""
-                                        {
-                                            "ean": 123,
-                                            "preco": 100.00
-                                        }
-                                        """)
-                );
-
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/item/456")
-                                .withHeader("Authorization", token2)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody("""
-                                        {
-                                            "ean": 456,
-                                            "preco": 100.00
-                                        }
-                                        """)
-                );
-
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/item/789")
-                                .withHeader("Authorization", token3)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody("""
-                                        {
-                                            "ean": 789,
-                                            "preco": 150.00
-                                        }
-                                        """)
-                );
-
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/item/333")
-                                .withHeader("Authorization", token4)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody("""
-                                        {
-                                            "ean": 333,
-                                            "preco": 250.00
-                                        }
-                                        """)
-                );
-
-        return clientAndServer;
+    @Override
+    public void after() {
+        log.info("Servicos simulados: item com {} chamadas ({} erros, {} travamentos), usuario com {} chamadas ({} erros, {} travamentos)",
+                this.servicos.item().chamadas(), this.servicos.item().erros(), this.servicos.item().travamentos(),
+                this.servicos.usuario().chamadas(), this.servicos.usuario().erros(), this.servicos.usuario().travamentos());
+        this.servicos.close();
     }
 
-    private ClientAndServer criaMockServerUsuario(final String token1,
-                                                  final String token2,
-                                                  final String token3,
-                                                  final String token4) {
-        final var clientAndServer = ClientAndServer.startClientAndServer(8080);
-
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/usuario/teste")
-                                .withHeader("Authorization", token1)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody(String.valueOf(true))
-                );
-
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/usuario/novoLogin")
-                                .withHeader("Authorization", token2)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody(String.valueOf(true))
-                );
+    private OpenInjectionStep[] perfilDeInjecao() {
+        return switch (PERFIL_DE_INJECAO) {
+            case "constante" -> new OpenInjectionStep[] {
+                    constantUsersPerSec(USUARIOS_POR_SEGUNDO)
+                            .during(Duration.ofSeconds(DURACAO_SEGUNDOS))
+            };
+            case "degraus" -> new OpenInjectionStep[] {
+                    incrementUsersPerSec((double) USUARIOS_POR_SEGUNDO / DEGRAUS)
+                            .times(DEGRAUS)
+                            .eachLevelLasting(Duration.ofSeconds(Math.max(1, DURACAO_SEGUNDOS / DEGRAUS)))
+                            .separatedByRampsLasting(Duration.ofSeconds(Math.max(1, RAMPA_SEGUNDOS / DEGRAUS)))
+            };
+            case "rampa" -> new OpenInjectionStep[] {
+                    rampUsersPerSec(1)
+                            .to(USUARIOS_POR_SEGUNDO)
+                            .during(Duration.ofSeconds(RAMPA_SEGUNDOS)),
+                    constantUsersPerSec(USUARIOS_POR_SEGUNDO)
+                            .during(Duration.ofSeconds(DURACAO_SEGUNDOS)),
+                    rampUsersPerSec(USUARIOS_POR_SEGUNDO)
+                            .to(1)
+                            .during(Duration.ofSeconds(RAMPA_SEGUNDOS))
+            };
+            default -> throw new IllegalArgumentException("PERFIL DE INJECAO DEVE SER rampa, constante OU degraus!");
+        };
+    }
 
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/usuario/"+usuarioDoToken3)
-                                .withHeader("Authorization", token3)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody(String.valueOf(true))
-                );
+    /**
+     * Percentis 95 e 99 de cada requisição, e nenhuma falha. Sem remoções a requisição de remoção não aparece
+     * nas estatísticas e fica fora das asserções.
+     */
+    private List<Assertion> assercoes() {
+        final var assercoes = new ArrayList<Assertion>();
+        final var requisicoes = PROBABILIDADE_REMOCAO > 0
+                ? List.of(INSERE, REMOVE, DISPONIVEL_PARA_PAGAMENTO, FINALIZA)
+                : List.of(INSERE, DISPONIVEL_PARA_PAGAMENTO, FINALIZA);
+        for (final var requisicao : requisicoes) {
+            assercoes.add(details(requisicao).responseTime().percentile(95.0).lt(P95_MS));
+            assercoes.add(details(requisicao).responseTime().percentile(99.0).lt(P99_MS));
+        }
+        assercoes.add(global().failedRequests().count().is(0L));
+        return assercoes;
+    }
 
-        clientAndServer.when(
-                        HttpRequest.request()
-                                .withMethod("GET")
-                                .withPath("/usuario/tokenFinaliza")
-                                .withHeader("Authorization", token4)
-                )
-                .respond(
-                        HttpResponse.response()
-                                .withContentType(MediaType.APPLICATION_JSON)
-                                .withStatusCode(200)
-                                .withBody(String.valueOf(true))
-                );
+    /**
+     * EANs distintos do carrinho, com tamanho geométrico de média {@code mediaItensPorCarrinho},
+     * limitado a {@code maximoItensPorCarrinho} e ao número de EANs.
+     */
+    private List<Long> sorteiaCarrinho() {
+        final var chanceDeParar = 1.0 / Math.max(1.0, MEDIA_ITENS_POR_CARRINHO);
+        final var limite = Math.min(MAXIMO_ITENS_POR_CARRINHO, EANS_DISTINTOS);
+        var tamanho = 1;
+        while (tamanho < limite && ThreadLocalRandom.current().nextDouble() >= chanceDeParar) {
+            tamanho++;
+        }
+
+        final var eans = new ArrayList<Long>(tamanho);
+        while (eans.size() < tamanho) {
+            final var ean = ServicosSimulados.PRIMEIRO_EAN + this.popularidadeDosEans.sorteia() - 1;
+            if (!eans.contains(ean)) {
+                eans.add(ean);
+            }
+        }
+        return eans;
+    }
 
-        return clientAndServer;
+    /**
+     * Serviços de item (porta 8081) e usuário (porta 8080) com o catálogo do tamanho de {@code eansDistintos}.
+     */
+    private ServicosSimulados iniciaServicosSimulados() {
+        final var latencia = DISPERSAO_LATENCIA_SERVICOS > 0
+                ? ServicosSimulados.Latencia.logNormal(Duration.ofMillis(LATENCIA_SERVICOS_MS), DISPERSAO_LATENCIA_SERVICOS)
+                : ServicosSimulados.Latencia.fixa(Duration.ofMillis(LATENCIA_SERVICOS_MS));
+        final var servicos = ServicosSimulados.inicia(8081, 8080)
+                .catalogo(EANS_DISTINTOS);
+        for (final var servico : List.of(servicos.item(), servicos.usuario())) {
+            servico.latencia(latencia)
+                    .taxaDeErro(TAXA_DE_ERRO_SERVICOS)
+                    .taxaDeTravamento(TAXA_DE_TRAVAMENTO_SERVICOS, Duration.ofSeconds(30));
+        }
+        return servicos;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,368 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoAsyncController;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.ItensDoCarrinhoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.RespostaIdempotenteRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.impl.RespostaIdempotenteNaInstanciaRepository;
+import com.fiap.techchallenge5.useCase.carrinho.impl.CarrinhoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class CarrinhoAsyncControllerTest {
+
+    @Test
+    public void insere_deveRetornar201_salvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insereAsync(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.CREATED, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void insere_deveRetornar409_naoSalvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insereAsync(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(false)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.CONFLICT, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void insere_mesmaIdempotencyKey_naoChamaServicoNovamente() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insereAsync(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var controller = this.criaController(service);
+        var dadosItem = new AdicionaItemDTO(
+                7894900011517L,
+                1L
+        );
+        var usuario = new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste");
+
+        // execução
+        var primeira = controller.insere(dadosItem, "chave-teste", usuario).join();
+        var segunda = controller.insere(dadosItem, "chave-teste", usuario).join();
+
+        // avaliação
+        Mockito.verify(service, Mockito.times(1)).insereAsync(any(AdicionaItemDTO.class), any(UsuarioAutenticado.class));
+        Assertions.assertEquals(HttpStatus.CREATED, primeira.getStatusCode());
+        Assertions.assertEquals(HttpStatus.CREATED, segunda.getStatusCode());
+    }
+
+    @Test
+    public void insere_comIdempotencyKey_buscaRespostaRegistradaNoExecutorDoBanco() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insereAsync(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var repository = Mockito.mock(RespostaIdempotenteRepository.class);
+        var threadDaBusca = new AtomicReference<Thread>();
+        Mockito.when(repository.reserva(any(), any(), any()))
+                .thenReturn(
+                        true
+                );
+        Mockito.when(repository.busca(any()))
+                .thenAnswer(invocacao -> {
+                    threadDaBusca.set(Thread.currentThread());
+                    return Optional.empty();
+                });
+
+        var executorBanco = Executors.newSingleThreadExecutor();
+        var controller = this.criaController(service, repository, executorBanco);
+
+        // execução
+        var carrinho = controller.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                "chave-teste",
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        ).join();
+        executorBanco.shutdown();
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.CREATED, carrinho.getStatusCode());
+        Assertions.assertNotNull(threadDaBusca.get());
+        Assertions.assertNotSame(Thread.currentThread(), threadDaBusca.get());
+        Mockito.verify(repository, Mockito.times(1)).busca(any());
+    }
+
+    @Test
+    public void insere_erroNoServico_propagaErroSemRegistrarResposta() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insereAsync(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.failedFuture(new IllegalStateException("erro no banco")),
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var controller = this.criaController(service);
+        var dadosItem = new AdicionaItemDTO(
+                7894900011517L,
+                1L
+        );
+        var usuario = new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste");
+
+        // execução
+        var primeira = controller.insere(dadosItem, "chave-teste", usuario);
+        var segunda = controller.insere(dadosItem, "chave-teste", usuario).join();
+
+        // avaliação
+        Assertions.assertThrows(CompletionException.class, primeira::join);
+        Assertions.assertEquals(HttpStatus.CREATED, segunda.getStatusCode());
+    }
+
+    @Test
+    public void remove_deveRetornar200_salvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.removeAsync(
+                            anyLong(),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.remove(
+                7894900011517L,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void remove_deveRetornar204_naoSalvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.removeAsync(
+                            anyLong(),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(false)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.remove(
+                7894900011517L,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void disponivelParaPagamento_deveRetornar200() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.disponivelParaPagamentoAsync(
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                new CarrinhoDisponivelParaPagamentoDTO(
+                                        "tokenTeste",
+                                        new BigDecimal("100.00"),
+                                        List.of(new ItensDoCarrinhoDTO(7894900011517L, new BigDecimal("100.00")))
+                                )
+                        )
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.disponivelParaPagamento(
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        ).join();
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, carrinho.getStatusCode());
+        Assertions.assertEquals(new BigDecimal("100.00"), carrinho.getBody().valorTotal());
+    }
+
+    @Test
+    public void disponivelParaPagamento_deveRetornar204() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.disponivelParaPagamentoAsync(
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(null)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.disponivelParaPagamento(
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void finaliza_deveRetornar200_salvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.finalizaAsync(
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(true)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.finaliza(
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.OK, carrinho.join().getStatusCode());
+    }
+
+    @Test
+    public void finaliza_deveRetornar204_naoSalvaNaBaseDeDados() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.finalizaAsync(
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        CompletableFuture.completedFuture(false)
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var carrinho = controller.finaliza(
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.join().getStatusCode());
+    }
+
+    private CarrinhoAsyncController criaController(final CarrinhoUseCaseImpl service) {
+        return this.criaController(service, new RespostaIdempotenteNaInstanciaRepository(), Runnable::run);
+    }
+
+    private CarrinhoAsyncController criaController(final CarrinhoUseCaseImpl service,
+                                                   final RespostaIdempotenteRepository repository,
+                                                   final Executor executorBanco) {
+        return new CarrinhoAsyncController(
+                service,
+                new RespostasIdempotentes(
+                        repository,
+                        executorBanco,
+                        Duration.ofHours(24),
+                        Duration.ofMinutes(1),
+                        1000,
+                        new SimpleMeterRegistry()
+                )
+        );
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CarrinhoConsultaTest {
+
+    @Test
+    public void pegaDisponivelParaPagamento_versaoMudouNoBanco_montaDeNovo() {
+        // preparação
+        var consulta = this.criaConsulta(true);
+        var versaoNoBanco = new AtomicInteger();
+        var montagens = new AtomicInteger();
+
+        // execução
+        consulta.pegaDisponivelParaPagamento("teste", usuario -> new VersaoDoCarrinho(1L, (long) versaoNoBanco.get()),
+                usuario -> this.carrega(versaoNoBanco.get(), montagens));
+        versaoNoBanco.incrementAndGet();
+        consulta.pegaDisponivelParaPagamento("teste", usuario -> new VersaoDoCarrinho(1L, (long) versaoNoBanco.get()),
+                usuario -> this.carrega(versaoNoBanco.get(), montagens));
+
+        // avaliação
+        Assertions.assertEquals(2, montagens.get());
+    }
+
+    @Test
+    public void pegaDisponivelParaPagamento_semVerificarVersao_acertoNaoConsultaOBanco() {
+        // preparação
+        var consulta = this.criaConsulta(false);
+        var consultasDeVersao = new AtomicInteger();
+        var montagens = new AtomicInteger();
+
+        // execução
+        for (int i = 0; i < 3; i++) {
+            consulta.pegaDisponivelParaPagamento("teste", usuario -> {
+                consultasDeVersao.incrementAndGet();
+                return new VersaoDoCarrinho(1L, 0L);
+            }, usuario -> this.carrega(0, montagens));
+        }
+
+        // avaliação
+        Assertions.assertEquals(1, montagens.get());
+        Assertions.assertEquals(0, consultasDeVersao.get());
+    }
+
+    private CarrinhoConsulta.CarrinhoCarregado carrega(final long versao,
+                                                       final AtomicInteger montagens) {
+        montagens.incrementAndGet();
+        return new CarrinhoConsulta.CarrinhoCarregado(
+                new VersaoDoCarrinho(1L, versao),
+                new CarrinhoDisponivelParaPagamentoDTO("teste", new BigDecimal("100.00"), List.of())
+        );
+    }
+
+    private CarrinhoConsulta criaConsulta(final boolean verificaVersao) {
+        return new CarrinhoConsulta(
+                Duration.ofMinutes(5),
+                1000,
+                verificaVersao,
+                new SimpleMeterRegistry()
+        );
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.fiap.techchallenge5.unitario;
 
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.CarrinhoController;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.ItensDoCarrinhoDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.idempotencia.RespostasIdempotentes;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.impl.RespostaIdempotenteNaInstanciaRepository;
 import com.fiap.techchallenge5.useCase.carrinho.impl.CarrinhoUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -15,6 +19,7 @@ import org.mockito.Mockito;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -29,14 +34,14 @@ public class CarrinhoControllerTest {
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.insere(
                             any(AdicionaItemDTO.class),
-                            any(String.class)
+                            any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         true
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
         var carrinho = controller.insere(
@@ -44,7 +49,8 @@ public class CarrinhoControllerTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
         );
 
         // avaliação
@@ -57,14 +63,14 @@ public class CarrinhoControllerTest {
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.insere(
                             any(AdicionaItemDTO.class),
-                            any(String.class)
+                            any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         false
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
         var carrinho = controller.insere(
@@ -72,7 +78,8 @@ public class CarrinhoControllerTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                null,
+                new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
         );
 
         // avaliação
@@ -85,17 +92,17 @@ public class CarrinhoControllerTest {
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.remove(
                                 anyLong(),
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         true
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.remove(1L,"tokenTeste");
+        var carrinho = controller.remove(1L,new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.OK, carrinho.getStatusCode());
@@ -107,17 +114,17 @@ public class CarrinhoControllerTest {
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.remove(
                                 anyLong(),
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         false
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.remove(1L, "tokenTeste");
+        var carrinho = controller.remove(1L, new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.getStatusCode());
@@ -128,7 +135,7 @@ public class CarrinhoControllerTest {
         // preparação
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.disponivelParaPagamento(
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
@@ -139,10 +146,10 @@ public class CarrinhoControllerTest {
                         )
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.disponivelParaPagamento("tokenTeste");
+        var carrinho = controller.disponivelParaPagamento(new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.OK, carrinho.getStatusCode());
@@ -153,17 +160,17 @@ public class CarrinhoControllerTest {
         // preparação
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.disponivelParaPagamento(
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         null
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.disponivelParaPagamento("tokenTeste");
+        var carrinho = controller.disponivelParaPagamento(new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.getStatusCode());
@@ -174,17 +181,17 @@ public class CarrinhoControllerTest {
         // preparação
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.finaliza(
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         true
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.finaliza("tokenTeste");
+        var carrinho = controller.finaliza(null, new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.OK, carrinho.getStatusCode());
@@ -195,17 +202,17 @@ public class CarrinhoControllerTest {
         // preparação
         var service = Mockito.mock(CarrinhoUseCaseImpl.class);
         Mockito.when(service.finaliza(
-                                any(String.class)
+                                any(UsuarioAutenticado.class)
                         )
                 )
                 .thenReturn(
                         false
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução
-        var carrinho = controller.finaliza("tokenTeste");
+        var carrinho = controller.finaliza(null, new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
 
         // avaliação
         Assertions.assertEquals(HttpStatus.NO_CONTENT, carrinho.getStatusCode());
@@ -224,10 +231,10 @@ public class CarrinhoControllerTest {
                 .when(service)
                 .insere(
                         any(AdicionaItemDTO.class),
-                        any(String.class)
+                        any(UsuarioAutenticado.class)
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
@@ -236,7 +243,8 @@ public class CarrinhoControllerTest {
                             ean,
                             quantidade
                     ),
-                    "tokenTeste"
+                    null,
+                    new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
             );
         });
     }
@@ -256,17 +264,168 @@ public class CarrinhoControllerTest {
                 .when(service)
                 .remove(
                         anyLong(),
-                        any(String.class)
+                        any(UsuarioAutenticado.class)
                 );
 
-        var controller = new CarrinhoController(service);
+        var controller = this.criaController(service);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(IllegalArgumentException.class, () -> {
-            controller.remove(ean, "tokenTeste");
+            controller.remove(ean, new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
         });
     }
 
+    @Test
+    public void insere_mesmaIdempotencyKey_chamaOServicoUmaVez() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insere(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        true
+                );
+
+        var controller = this.criaController(service);
+        var dadosItem = new AdicionaItemDTO(
+                7894900011517L,
+                1L
+        );
+        var usuario = new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste");
+
+        // execução
+        var primeira = controller.insere(dadosItem, "chave-1", usuario);
+        var repetida = controller.insere(dadosItem, "chave-1", usuario);
+
+        // avaliação
+        Mockito.verify(service, Mockito.times(1)).insere(any(AdicionaItemDTO.class), any(UsuarioAutenticado.class));
+        Assertions.assertEquals(HttpStatus.CREATED, primeira.getStatusCode());
+        Assertions.assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+    }
+
+    @Test
+    public void insere_mesmaIdempotencyKeyComOutroCorpo_deveRetornar422() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insere(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        true
+                );
+
+        var controller = this.criaController(service);
+        var usuario = new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste");
+
+        // execução
+        var primeira = controller.insere(new AdicionaItemDTO(7894900011517L, 1L), "chave-1", usuario);
+        var outroCorpo = controller.insere(new AdicionaItemDTO(7894900011517L, 2L), "chave-1", usuario);
+
+        // avaliação
+        Mockito.verify(service, Mockito.times(1)).insere(any(AdicionaItemDTO.class), any(UsuarioAutenticado.class));
+        Assertions.assertEquals(HttpStatus.CREATED, primeira.getStatusCode());
+        Assertions.assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, outroCorpo.getStatusCode());
+    }
+
+    @Test
+    public void insere_idempotencyKeyComRespostaDeErro_chamaOServicoNovamente() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.insere(
+                            any(AdicionaItemDTO.class),
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        false,
+                        true
+                );
+
+        var controller = this.criaController(service);
+        var dadosItem = new AdicionaItemDTO(
+                7894900011517L,
+                1L
+        );
+        var usuario = new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste");
+
+        // execução
+        var primeira = controller.insere(dadosItem, "chave-1", usuario);
+        var repetida = controller.insere(dadosItem, "chave-1", usuario);
+
+        // avaliação
+        Mockito.verify(service, Mockito.times(2)).insere(any(AdicionaItemDTO.class), any(UsuarioAutenticado.class));
+        Assertions.assertEquals(HttpStatus.CONFLICT, primeira.getStatusCode());
+        Assertions.assertEquals(HttpStatus.CREATED, repetida.getStatusCode());
+    }
+
+    @Test
+    public void finaliza_mesmaIdempotencyKeyDeOutroUsuario_chamaOServicoNovamente() {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        Mockito.when(service.finaliza(
+                            any(UsuarioAutenticado.class)
+                        )
+                )
+                .thenReturn(
+                        true
+                );
+
+        var controller = this.criaController(service);
+
+        // execução
+        var primeira = controller.finaliza("chave-1", new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
+        var repetida = controller.finaliza("chave-1", new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste"));
+        var outroUsuario = controller.finaliza("chave-1", new UsuarioAutenticado("outroUsuario", "Bearer outroUsuario"));
+
+        // avaliação
+        Mockito.verify(service, Mockito.times(2)).finaliza(any(UsuarioAutenticado.class));
+        Assertions.assertEquals(HttpStatus.OK, primeira.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, repetida.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, outroUsuario.getStatusCode());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            " "
+    })
+    public void insere_idempotencyKeyInvalida_naoChamaOServico(String chaveIdempotencia) {
+        // preparação
+        var service = Mockito.mock(CarrinhoUseCaseImpl.class);
+        var controller = this.criaController(service);
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            controller.insere(
+                    new AdicionaItemDTO(
+                            7894900011517L,
+                            1L
+                    ),
+                    chaveIdempotencia,
+                    new UsuarioAutenticado("tokenTeste", "Bearer tokenTeste")
+            );
+        });
+        Mockito.verifyNoInteractions(service);
+    }
+
+    private CarrinhoController criaController(final CarrinhoUseCaseImpl service) {
+        return new CarrinhoController(
+                service,
+                new RespostasIdempotentes(
+                        new RespostaIdempotenteNaInstanciaRepository(),
+                        Runnable::run,
+                        Duration.ofHours(24),
+                        Duration.ofMinutes(1),
+                        1000,
+                        new SimpleMeterRegistry()
+                )
+        );
+    }
+
     private static Stream<Arguments> requestValidandoCampos() {
         return Stream.of(
                 Arguments.of(null, 100L),
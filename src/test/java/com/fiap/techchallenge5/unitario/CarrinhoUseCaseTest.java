@@ -1,19 +1,30 @@
 package com.fiap.techchallenge5.unitario;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
 import com.fiap.techchallenge5.domain.StatusEnum;
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.CarrinhoDisponivelParaPagamentoDTO;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.CarrinhoEntity;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.ItemDoCarrinhoProjecao;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoEntity;
 import com.fiap.techchallenge5.infrastructure.carrinho.model.ItensNoCarrinhoId;
+import com.fiap.techchallenge5.infrastructure.carrinho.model.VersaoDoCarrinho;
 import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
 import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.TravaCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.impl.CarrinhoEscritaJpaRepository;
+import com.fiap.techchallenge5.infrastructure.concorrencia.FilaPorChave;
+import com.fiap.techchallenge5.infrastructure.concorrencia.TravaPorChave;
 import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
 import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas;
 import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
 import com.fiap.techchallenge5.useCase.carrinho.impl.CarrinhoUseCaseImpl;
-import com.fiap.techchallenge5.useCase.token.impl.TokenUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -21,11 +32,22 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mockito;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
@@ -39,7 +61,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -49,16 +70,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
@@ -76,7 +87,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -88,7 +100,7 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -96,13 +108,11 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).save(Mockito.any());
@@ -118,7 +128,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -128,16 +137,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
@@ -151,7 +150,8 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
@@ -163,7 +163,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -175,17 +176,17 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 123456L),
-                                        new BigDecimal("100.00")
+                                        new BigDecimal("40.00")
                                 )
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -193,43 +194,36 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).save(Mockito.any());
         verify(repositoryItensNoCarrinho, times(1)).save(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).findById(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryCarrinho).save(argThat(carrinho -> carrinho.getValorTotal().compareTo(new BigDecimal("160.00")) == 0));
 
         Assertions.assertTrue(insere);
     }
 
     @Test
-    public void insere_itemNaoEncontrado_naoSalvaNaBaseDeDados() {
+    public void insere_conflitoDeVersao_repeteATransacao() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
-                        null
-                );
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
+                        new ItemDTO(
+                                123456L,
+                                new BigDecimal("100.00")
+                        )
                 );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
@@ -238,38 +232,79 @@ public class CarrinhoUseCaseTest {
                 );
 
         Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        Optional.of(
+                .thenAnswer(invocacao -> Optional.of(
                                 new CarrinhoEntity(
                                         1L,
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenThrow(
+                        new ObjectOptimisticLockingFailureException(CarrinhoEntity.class, 1L)
+                )
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+
+        // execução
+        boolean insere = service.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
+        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(2)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(2)).save(argThat(carrinho -> carrinho.getValorTotal().compareTo(new BigDecimal("200.00")) == 0));
+
+        Assertions.assertTrue(insere);
+    }
+
+    @Test
+    public void insere_conflitoEmTodasAsTentativas_naoSalvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
-                        new CarrinhoEntity(
-                                1L,
-                                "usuario de teste",
-                                StatusEnum.ABERTO,
-                                new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                        new ItemDTO(
+                                123456L,
+                                new BigDecimal("100.00")
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.save(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        new ItensNoCarrinhoEntity(
-                                new ItensNoCarrinhoId(1L, 123456L),
-                                new BigDecimal("100.00")
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenThrow(
+                        new DataIntegrityViolationException(
+                                "carrinho aberto duplicado",
+                                new SQLException("duplicate key value violates unique constraint \"ux_carrinho_usuario_aberto\"", "23505")
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -277,29 +312,23 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
-        verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(0)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).save(Mockito.any());
+        verify(repositoryCarrinho, times(3)).save(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).save(Mockito.any());
 
         Assertions.assertFalse(insere);
     }
 
     @Test
-    public void insere_erroNoToken_naoSalvaNaBaseDeDados() {
+    public void insere_outraViolacaoDeIntegridade_naoRepeteAEscrita() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -309,14 +338,48 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        null
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenThrow(
+                        new DataIntegrityViolationException(
+                                "valor nulo",
+                                new SQLException("null value in column \"usuario\" violates not-null constraint", "23502")
+                        )
                 );
 
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+
+        // execução e avaliação
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> service.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        ));
+        verify(repositoryCarrinho, times(1)).save(Mockito.any());
+    }
+
+    @Test
+    public void insere_itemNaoEncontrado_naoSalvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
-                        "tokenTeste"
+                        null
                 );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
@@ -326,7 +389,16 @@ public class CarrinhoUseCaseTest {
 
         Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        Optional.of(
+                                new CarrinhoEntity(
+                                        1L,
+                                        "usuario de teste",
+                                        StatusEnum.ABERTO,
+                                        new BigDecimal("100.00"),
+                                        LocalDateTime.now(),
+                                        0L
+                                )
+                        )
                 );
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -336,7 +408,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -348,7 +421,7 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -356,14 +429,12 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(clientUsuario, atMostOnce()).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).save(Mockito.any());
@@ -378,7 +449,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -388,16 +458,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         null
@@ -415,7 +475,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -427,7 +488,7 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -435,13 +496,11 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -457,7 +516,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -467,16 +525,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         false
@@ -494,7 +542,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -506,7 +555,7 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -514,13 +563,11 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -536,7 +583,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -546,16 +592,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.doThrow(
                         new IllegalArgumentException("usuario nao existe!")
                 )
@@ -577,7 +613,8 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
@@ -589,7 +626,7 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean insere = service.insere(
@@ -597,13 +634,11 @@ public class CarrinhoUseCaseTest {
                         7894900011517L,
                         1L
                 ),
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -613,190 +648,181 @@ public class CarrinhoUseCaseTest {
     }
 
     @Test
-    public void remove_carrinhoComItens_salvaNaBaseDeDados() {
+    public void insere_buscaItemEUsuarioEmParalelo() throws Exception {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
+        var executor = Executors.newFixedThreadPool(2);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
-                .thenReturn(
-                        new ItemDTO(
-                                123456L,
-                                new BigDecimal("100.00")
-                        )
-                );
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(500);
+                    return new ItemDTO(
+                            123456L,
+                            new BigDecimal("100.00")
+                    );
+                });
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        true
-                );
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(500);
+                    return true;
+                });
 
         Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.of(
-                                new CarrinhoEntity(
-                                        1L,
-                                        "usuario de teste",
-                                        StatusEnum.ABERTO,
-                                        new BigDecimal("100.00"),
-                                        LocalDateTime.now()
-                                )
-                        )
-                );
-
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
-                .thenReturn(
-                        List.of(
-                                new ItensNoCarrinhoEntity(
-                                        new ItensNoCarrinhoId(1L, 7894900011517L),
-                                        new BigDecimal("100.00")
-                                )
-                        )
+                        Optional.empty()
                 );
 
-        Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
-
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
                 .thenReturn(
                         new CarrinhoEntity(
                                 1L,
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
-                                new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                new BigDecimal("100.00"),
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, executor);
 
         // execução
-        boolean remove = service.remove(
-                7894900011517L,
-                "tokenTeste"
+        var inicio = System.nanoTime();
+        boolean insere = service.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
+        var duracao = Duration.ofNanos(System.nanoTime() - inicio);
+        executor.shutdownNow();
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(2)).findByIdIdCarrinho(Mockito.any());
-        verify(repositoryItensNoCarrinho, times(1)).delete(Mockito.any());
-        verify(repositoryCarrinho, times(1)).save(Mockito.any());
-        verify(repositoryCarrinho, times(0)).delete(Mockito.any());
-
-        Assertions.assertTrue(remove);
+        Assertions.assertTrue(insere);
+        Assertions.assertTrue(duracao.toMillis() < 950, "duração: " + duracao.toMillis() + "ms");
     }
 
     @Test
-    public void remove_itemNaoEncontrado_naoSalvaNaBaseDeDados() {
+    public void insere_usuarioNaoExiste_naoAguardaBuscaDoItem() throws Exception {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
+        var executor = Executors.newFixedThreadPool(2);
+        var liberaItem = new CountDownLatch(1);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
-                .thenReturn(
-                        null
-                );
+                .thenAnswer(invocacao -> {
+                    liberaItem.await(5, TimeUnit.SECONDS);
+                    return new ItemDTO(
+                            123456L,
+                            new BigDecimal("100.00")
+                    );
+                });
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        mock(DecodedJWT.class)
+                        false
                 );
 
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, executor);
+
+        // execução
+        var inicio = System.nanoTime();
+        boolean insere = service.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+        var duracao = Duration.ofNanos(System.nanoTime() - inicio);
+        liberaItem.countDown();
+        executor.shutdownNow();
+
+        // avaliação
+        verifyNoInteractions(repositoryCarrinho);
+        verifyNoInteractions(repositoryItensNoCarrinho);
+        Assertions.assertFalse(insere);
+        Assertions.assertTrue(duracao.toMillis() < 2000, "duração: " + duracao.toMillis() + "ms");
+    }
+
+    @Test
+    public void insere_buscaUsuarioNaThreadDaRequisicao_soOItemVaiParaOExecutor() throws Exception {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+        var executor = Executors.newFixedThreadPool(2);
+        var threadDoItem = new AtomicReference<Thread>();
+        var threadDoUsuario = new AtomicReference<Thread>();
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
+                .thenAnswer(invocacao -> {
+                    threadDoItem.set(Thread.currentThread());
+                    return new ItemDTO(
+                            123456L,
+                            new BigDecimal("100.00")
+                    );
+                });
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        true
-                );
+                .thenAnswer(invocacao -> {
+                    threadDoUsuario.set(Thread.currentThread());
+                    return true;
+                });
 
         Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.of(
-                                new CarrinhoEntity(
-                                        1L,
-                                        "usuario de teste",
-                                        StatusEnum.ABERTO,
-                                        new BigDecimal("100.00"),
-                                        LocalDateTime.now()
-                                )
-                        )
-                );
-
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
-                .thenReturn(
-                        List.of(
-                                new ItensNoCarrinhoEntity(
-                                        new ItensNoCarrinhoId(1L, 7894900011517L),
-                                        new BigDecimal("100.00")
-                                )
-                        )
+                        Optional.empty()
                 );
 
-        Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
-
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
                 .thenReturn(
                         new CarrinhoEntity(
                                 1L,
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
-                                new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                new BigDecimal("100.00"),
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, executor);
 
         // execução
-        boolean remove = service.remove(
-                7894900011517L,
-                "tokenTeste"
+        boolean insere = service.insere(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
+        executor.shutdownNow();
 
         // avaliação
-        verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(0)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
-        verify(repositoryCarrinho, times(0)).delete(Mockito.any());
-        verify(repositoryCarrinho, times(0)).save(Mockito.any());
-
-        Assertions.assertFalse(remove);
+        Assertions.assertTrue(insere);
+        Assertions.assertSame(Thread.currentThread(), threadDoUsuario.get());
+        Assertions.assertNotSame(Thread.currentThread(), threadDoItem.get());
     }
 
     @Test
-    public void remove_erroNoToken_naoSalvaNaBaseDeDados() {
+    public void remove_carrinhoComItens_salvaNaBaseDeDados() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -806,14 +832,85 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        null
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.of(
+                                new CarrinhoEntity(
+                                        1L,
+                                        "usuario de teste",
+                                        StatusEnum.ABERTO,
+                                        new BigDecimal("100.00"),
+                                        LocalDateTime.now(),
+                                        0L
+                                )
+                        )
+                );
+
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
+                .thenReturn(
+                        Optional.of(
+                                new ItensNoCarrinhoEntity(
+                                        new ItensNoCarrinhoId(1L, 7894900011517L),
+                                        new BigDecimal("100.00")
+                                )
+                        )
                 );
 
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
                 .thenReturn(
-                        "tokenTeste"
+                        true
+                );
+
+        Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
+
+        Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenReturn(
+                        new CarrinhoEntity(
+                                1L,
+                                "usuario de teste",
+                                StatusEnum.ABERTO,
+                                new BigDecimal("10.00"),
+                                LocalDateTime.now(),
+                                0L
+                        )
+                );
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+
+        // execução
+        boolean remove = service.remove(
+                7894900011517L,
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
+        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).findById(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).delete(Mockito.any());
+        verify(repositoryCarrinho, times(1)).save(Mockito.any());
+        verify(repositoryCarrinho, times(0)).delete(Mockito.any());
+
+        Assertions.assertTrue(remove);
+    }
+
+    @Test
+    public void remove_itemNaoEncontrado_naoSalvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
+                .thenReturn(
+                        null
                 );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
@@ -829,14 +926,15 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
@@ -844,6 +942,11 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -853,28 +956,27 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
-        verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
+        verify(repositoryCarrinho, times(0)).save(Mockito.any());
 
         Assertions.assertFalse(remove);
     }
@@ -886,7 +988,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -896,16 +997,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         null
@@ -919,14 +1010,15 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
@@ -934,6 +1026,11 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -943,25 +1040,24 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
@@ -976,7 +1072,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -986,16 +1081,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         false
@@ -1009,14 +1094,15 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
@@ -1024,6 +1110,11 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -1033,25 +1124,24 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
@@ -1066,7 +1156,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -1076,16 +1165,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.doThrow(
                         new IllegalArgumentException("usuario nao existe!")
                 )
@@ -1103,14 +1182,15 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
@@ -1118,6 +1198,11 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -1127,25 +1212,24 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
@@ -1160,7 +1244,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -1170,16 +1253,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
@@ -1190,9 +1263,9 @@ public class CarrinhoUseCaseTest {
                         Optional.empty()
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
@@ -1200,6 +1273,11 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
 
         Mockito.when(repositoryCarrinho.save(Mockito.any()))
@@ -1209,25 +1287,24 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
@@ -1242,7 +1319,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -1252,16 +1328,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
@@ -1275,19 +1341,15 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
-                                new ItensNoCarrinhoEntity(
-                                        new ItensNoCarrinhoId(1L, 123L),
-                                        new BigDecimal("100.00")
-                                )
-                        )
+                        Optional.empty()
                 );
 
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
@@ -1299,25 +1361,24 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(1)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(0)).delete(Mockito.any());
@@ -1332,7 +1393,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
         Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
                 .thenReturn(
@@ -1342,16 +1402,6 @@ public class CarrinhoUseCaseTest {
                         )
                 );
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
-
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
@@ -1365,20 +1415,25 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
 
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
+        Mockito.when(repositoryItensNoCarrinho.findById(Mockito.any()))
                 .thenReturn(
-                        List.of(
+                        Optional.of(
                                 new ItensNoCarrinhoEntity(
                                         new ItensNoCarrinhoId(1L, 7894900011517L),
                                         new BigDecimal("100.00")
                                 )
-                        ),
-                        List.of()
+                        )
+                );
+
+        Mockito.when(repositoryItensNoCarrinho.existsByIdIdCarrinho(Mockito.any()))
+                .thenReturn(
+                        false
                 );
 
         Mockito.doNothing().when(repositoryItensNoCarrinho).delete(Mockito.any());
@@ -1390,27 +1445,26 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("10.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
         Mockito.doNothing().when(repositoryCarrinho).delete(Mockito.any());
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
         boolean remove = service.remove(
                 7894900011517L,
-                "tokenTeste"
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
         );
 
         // avaliação
         verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(2)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).findById(Mockito.any());
         verify(repositoryItensNoCarrinho, times(1)).delete(Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
         verify(repositoryCarrinho, times(1)).delete(Mockito.any());
@@ -1425,57 +1479,34 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.of(
-                                new CarrinhoEntity(
+                        List.of(
+                                new ItemDoCarrinhoProjecao(
                                         1L,
-                                        "usuario de teste",
-                                        StatusEnum.ABERTO,
+                                        0L,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
-                                )
-                        )
-                );
-
-        Mockito.when(repositoryItensNoCarrinho.findByIdIdCarrinho(Mockito.any()))
-                .thenReturn(
-                        List.of(
-                                new ItensNoCarrinhoEntity(
-                                        new ItensNoCarrinhoId(1L, 123456L),
+                                        123456L,
                                         new BigDecimal("100.00")
                                 )
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(1)).findByIdIdCarrinho(Mockito.any());
+        verify(repositoryCarrinho, times(1)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
 
         Assertions.assertEquals("usuario de teste", disponivel.usuario());
         Assertions.assertEquals(new BigDecimal("100.00"), disponivel.valorTotal());
@@ -1485,88 +1516,186 @@ public class CarrinhoUseCaseTest {
     }
 
     @Test
-    public void disponivelParaPagamento_carrinhoFinalizadoOuCarrinhoNaoExiste() {
+    public void disponivelParaPagamento_consultasRepetidas_buscaNaBaseDeDadosUmaVez() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        mock(DecodedJWT.class)
+                        List.of(
+                                new ItemDoCarrinhoProjecao(
+                                        1L,
+                                        0L,
+                                        new BigDecimal("100.00"),
+                                        123456L,
+                                        new BigDecimal("100.00")
+                                )
+                        )
                 );
 
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
+        Mockito.when(repositoryCarrinho.findVersaoByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        "tokenTeste"
+                        Optional.of(new VersaoDoCarrinho(1L, 0L))
                 );
 
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+        var usuario = new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste");
+
+        // execução
+        var primeiro = service.disponivelParaPagamento(usuario);
+        var segundo = service.disponivelParaPagamento(usuario);
+
+        // avaliação
+        verify(repositoryCarrinho, times(1)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(1)).findVersaoByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        Assertions.assertSame(primeiro, segundo);
+    }
+
+    @Test
+    public void disponivelParaPagamento_versaoDoCarrinhoMudouEmOutraInstancia_buscaNaBaseDeDadosNovamente() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        List.of(
+                                new ItemDoCarrinhoProjecao(
+                                        1L,
+                                        0L,
+                                        new BigDecimal("100.00"),
+                                        123456L,
+                                        new BigDecimal("100.00")
+                                )
+                        ),
+                        List.of(
+                                new ItemDoCarrinhoProjecao(
+                                        1L,
+                                        1L,
+                                        new BigDecimal("150.00"),
+                                        123456L,
+                                        new BigDecimal("150.00")
+                                )
+                        )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        Mockito.when(repositoryCarrinho.findVersaoByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.of(new VersaoDoCarrinho(1L, 1L))
+                );
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+        var usuario = new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste");
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        var antes = service.disponivelParaPagamento(usuario);
+        var depois = service.disponivelParaPagamento(usuario);
+        var emCache = service.disponivelParaPagamento(usuario);
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
-
-        Assertions.assertNull(disponivel);
+        verify(repositoryCarrinho, times(2)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(2)).findVersaoByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        Assertions.assertEquals(new BigDecimal("100.00"), antes.valorTotal());
+        Assertions.assertEquals(new BigDecimal("150.00"), depois.valorTotal());
+        Assertions.assertSame(depois, emCache);
     }
 
     @Test
-    public void disponivelParaPagamento_erroNoToken() {
+    public void disponivelParaPagamento_depoisDeFinalizar_buscaNaBaseDeDadosNovamente() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        null
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        List.of(
+                                new ItemDoCarrinhoProjecao(
+                                        1L,
+                                        0L,
+                                        new BigDecimal("100.00"),
+                                        123456L,
+                                        new BigDecimal("100.00")
+                                )
+                        ),
+                        List.of()
                 );
 
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
+        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        "tokenTeste"
+                        Optional.of(
+                                new CarrinhoEntity(
+                                        1L,
+                                        "usuario de teste",
+                                        StatusEnum.ABERTO,
+                                        new BigDecimal("100.00"),
+                                        LocalDateTime.now(),
+                                        0L
+                                )
+                        )
                 );
 
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+        var usuario = new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste");
+
+        // execução
+        var antes = service.disponivelParaPagamento(usuario);
+        service.finaliza(usuario);
+        var depois = service.disponivelParaPagamento(usuario);
+
+        // avaliação
+        verify(repositoryCarrinho, times(2)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        Assertions.assertNotNull(antes);
+        Assertions.assertNull(depois);
+    }
+
+    @Test
+    public void disponivelParaPagamento_carrinhoFinalizadoOuCarrinhoNaoExiste() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        List.of()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(1)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
 
         Assertions.assertNull(disponivel);
@@ -1579,38 +1708,25 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         null
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        List.of()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(0)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
 
         Assertions.assertNull(disponivel);
@@ -1623,38 +1739,25 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         false
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        List.of()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(0)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
 
         Assertions.assertNull(disponivel);
@@ -1667,17 +1770,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.doThrow(
                         new IllegalArgumentException("usuario nao existe!")
@@ -1688,21 +1780,19 @@ public class CarrinhoUseCaseTest {
                         Mockito.any()
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+        Mockito.when(repositoryCarrinho.findItensByUsuarioAndStatus(Mockito.any(), Mockito.any()))
                 .thenReturn(
-                        Optional.empty()
+                        List.of()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento("tokenTeste");
+        CarrinhoDisponivelParaPagamentoDTO disponivel = service.disponivelParaPagamento(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(0)).findItensByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryItensNoCarrinho, times(0)).findByIdIdCarrinho(Mockito.any());
 
         Assertions.assertNull(disponivel);
@@ -1715,17 +1805,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
@@ -1740,7 +1819,8 @@ public class CarrinhoUseCaseTest {
                                         "usuario de teste",
                                         StatusEnum.ABERTO,
                                         new BigDecimal("100.00"),
-                                        LocalDateTime.now()
+                                        LocalDateTime.now(),
+                                        0L
                                 )
                         )
                 );
@@ -1752,18 +1832,17 @@ public class CarrinhoUseCaseTest {
                                 "usuario de teste",
                                 StatusEnum.ABERTO,
                                 new BigDecimal("100.00"),
-                                LocalDateTime.now()
+                                LocalDateTime.now(),
+                                0L
                         )
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(1)).save(Mockito.any());
@@ -1772,78 +1851,38 @@ public class CarrinhoUseCaseTest {
     }
 
     @Test
-    public void finaliza_carrinhoFinalizadoOuCarrinhoNaoExiste_naoSalvaNaBaseDeDados() {
+    public void finaliza_esperaPelaTravaNoBancoEsgotada_naoSalvaNaBaseDeDados() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
                         true
                 );
 
-        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
-                .thenReturn(
-                        Optional.empty()
-                );
-
-        Mockito.when(repositoryCarrinho.save(Mockito.any()))
-                .thenReturn(
-                        new CarrinhoEntity(
-                                1L,
-                                "usuario de teste",
-                                StatusEnum.FINALIZADO,
-                                new BigDecimal("100.00"),
-                                LocalDateTime.now()
-                        )
-                );
-
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, Runnable::run,
+                usuario -> {
+                    throw new CannotAcquireLockException("lock_timeout");
+                });
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).save(Mockito.any());
-
+        verifyNoInteractions(repositoryCarrinho);
         Assertions.assertFalse(finaliza);
     }
 
     @Test
-    public void finaliza_erroNoToken_naoSalvaNaBaseDeDados() {
+    public void finaliza_carrinhoFinalizadoOuCarrinhoNaoExiste_naoSalvaNaBaseDeDados() {
         // preparação
         var clientItem = Mockito.mock(ItemClient.class);
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        null
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
@@ -1855,16 +1894,26 @@ public class CarrinhoUseCaseTest {
                         Optional.empty()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenReturn(
+                        new CarrinhoEntity(
+                                1L,
+                                "usuario de teste",
+                                StatusEnum.FINALIZADO,
+                                new BigDecimal("100.00"),
+                                LocalDateTime.now(),
+                                0L
+                        )
+                );
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(0)).pegaUsuario(Mockito.any());
-        verify(clientUsuario, times(0)).usuarioExiste(Mockito.any(), Mockito.any());
-        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(1)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
 
         Assertions.assertFalse(finaliza);
@@ -1877,17 +1926,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
@@ -1899,14 +1937,12 @@ public class CarrinhoUseCaseTest {
                         Optional.empty()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -1921,17 +1957,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
                 .thenReturn(
@@ -1943,14 +1968,12 @@ public class CarrinhoUseCaseTest {
                         Optional.empty()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -1965,17 +1988,6 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
-
-        Mockito.when(serviceToken.pegaJwt(Mockito.any()))
-                .thenReturn(
-                        mock(DecodedJWT.class)
-                );
-
-        Mockito.when(serviceToken.pegaUsuario(Mockito.any()))
-                .thenReturn(
-                        "tokenTeste"
-                );
 
         Mockito.doThrow(
                         new IllegalArgumentException("usuario nao existe!")
@@ -1991,14 +2003,12 @@ public class CarrinhoUseCaseTest {
                         Optional.empty()
                 );
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução
-        boolean finaliza = service.finaliza("tokenTeste");
+        boolean finaliza = service.finaliza(new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste"));
 
         // avaliação
-        verify(serviceToken, times(1)).pegaJwt(Mockito.any());
-        verify(serviceToken, times(1)).pegaUsuario(Mockito.any());
         verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
         verify(repositoryCarrinho, times(0)).save(Mockito.any());
@@ -2015,9 +2025,8 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
@@ -2026,11 +2035,10 @@ public class CarrinhoUseCaseTest {
                             ean,
                             quantidade
                     ),
-                    "tokenTeste"
+                    new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
             );
         });
         verifyNoInteractions(clientItem);
-        verifyNoInteractions(serviceToken);
         verifyNoInteractions(clientUsuario);
         verifyNoInteractions(repositoryCarrinho);
         verifyNoInteractions(repositoryItensNoCarrinho);
@@ -2048,24 +2056,204 @@ public class CarrinhoUseCaseTest {
         var clientUsuario = Mockito.mock(UsuarioClient.class);
         var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
         var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
-        var serviceToken = Mockito.mock(TokenUseCaseImpl.class);
 
-        var service = new CarrinhoUseCaseImpl(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, serviceToken);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
 
         // execução e avaliação
         var excecao = Assertions.assertThrows(RuntimeException.class, () -> {
             service.remove(
                     ean,
-                    "tokenTeste"
+                    new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
             );
         });
         verifyNoInteractions(clientItem);
-        verifyNoInteractions(serviceToken);
         verifyNoInteractions(clientUsuario);
         verifyNoInteractions(repositoryCarrinho);
         verifyNoInteractions(repositoryItensNoCarrinho);
     }
 
+    @Test
+    public void insereAsync_carrinhoVazio_salvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
+                .thenReturn(
+                        new ItemDTO(
+                                123456L,
+                                new BigDecimal("100.00")
+                        )
+                );
+
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
+        Mockito.when(repositoryCarrinho.findByUsuarioAndStatus(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        Optional.empty()
+                );
+
+        Mockito.when(repositoryCarrinho.save(Mockito.any()))
+                .thenReturn(
+                        new CarrinhoEntity(
+                                1L,
+                                "usuario de teste",
+                                StatusEnum.ABERTO,
+                                new BigDecimal("100.00"),
+                                LocalDateTime.now(),
+                                0L
+                        )
+                );
+
+        var executor = Executors.newFixedThreadPool(2);
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, executor);
+
+        // execução
+        var insere = service.insereAsync(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertTrue(insere.orTimeout(5, TimeUnit.SECONDS).join());
+        executor.shutdown();
+        verify(clientItem, times(1)).pegaItem(anyLong(), Mockito.any());
+        verify(clientUsuario, times(1)).usuarioExiste(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(1)).save(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(1)).save(Mockito.any());
+    }
+
+    @Test
+    public void insereAsync_itemNaoEncontrado_naoSalvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientItem.pegaItem(anyLong(), Mockito.any()))
+                .thenReturn(
+                        null
+                );
+
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        true
+                );
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+
+        // execução
+        var insere = service.insereAsync(
+                new AdicionaItemDTO(
+                        7894900011517L,
+                        1L
+                ),
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertFalse(insere.join());
+        verify(repositoryCarrinho, times(0)).save(Mockito.any());
+        verify(repositoryItensNoCarrinho, times(0)).save(Mockito.any());
+    }
+
+    @Test
+    public void finalizaAsync_usuarioNaoExiste_naoSalvaNaBaseDeDados() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        var repositoryCarrinho = Mockito.mock(CarrinhoRepository.class);
+        var repositoryItensNoCarrinho = Mockito.mock(ItensNoCarrinhoRepository.class);
+
+        Mockito.when(clientUsuario.usuarioExiste(Mockito.any(), Mockito.any()))
+                .thenReturn(
+                        false
+                );
+
+        var service = this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho);
+
+        // execução
+        var finaliza = service.finalizaAsync(
+                new UsuarioAutenticado("usuario de teste", "Bearer tokenTeste")
+        );
+
+        // avaliação
+        Assertions.assertFalse(finaliza.join());
+        verify(repositoryCarrinho, times(0)).findByUsuarioAndStatus(Mockito.any(), Mockito.any());
+        verify(repositoryCarrinho, times(0)).save(Mockito.any());
+    }
+
+    private CarrinhoUseCaseImpl criaService(final ItemClient clientItem,
+                                            final UsuarioClient clientUsuario,
+                                            final CarrinhoRepository repositoryCarrinho,
+                                            final ItensNoCarrinhoRepository repositoryItensNoCarrinho) {
+        return this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, Runnable::run);
+    }
+
+    private CarrinhoUseCaseImpl criaService(final ItemClient clientItem,
+                                            final UsuarioClient clientUsuario,
+                                            final CarrinhoRepository repositoryCarrinho,
+                                            final ItensNoCarrinhoRepository repositoryItensNoCarrinho,
+                                            final Executor executor) {
+        return this.criaService(clientItem, clientUsuario, repositoryCarrinho, repositoryItensNoCarrinho, executor, usuario -> {});
+    }
+
+    private CarrinhoUseCaseImpl criaService(final ItemClient clientItem,
+                                            final UsuarioClient clientUsuario,
+                                            final CarrinhoRepository repositoryCarrinho,
+                                            final ItensNoCarrinhoRepository repositoryItensNoCarrinho,
+                                            final Executor executor,
+                                            final TravaCarrinhoRepository travaCarrinhoNoBanco) {
+        final var consultaItem = new ItemConsulta(
+                clientItem,
+                Runnable::run,
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(2),
+                1000,
+                new SimpleMeterRegistry()
+        );
+        final var consultaUsuario = new UsuarioConsulta(
+                clientUsuario,
+                Duration.ofMinutes(30),
+                Duration.ofSeconds(30),
+                1000,
+                new SimpleMeterRegistry()
+        );
+        final var repositoryEscrita = new CarrinhoEscritaJpaRepository(repositoryCarrinho, repositoryItensNoCarrinho, Mockito.mock(EntityManager.class));
+        final var consultaCarrinho = new CarrinhoConsulta(
+                Duration.ofMinutes(5),
+                1000,
+                true,
+                new SimpleMeterRegistry()
+        );
+        return new CarrinhoUseCaseImpl(
+                consultaItem,
+                consultaUsuario,
+                repositoryCarrinho,
+                repositoryEscrita,
+                travaCarrinhoNoBanco,
+                consultaCarrinho,
+                TransactionOperations.withoutTransaction(),
+                3,
+                Duration.ZERO,
+                new TravaPorChave<>("carrinho", 16, Duration.ofSeconds(1), new SimpleMeterRegistry()),
+                new FilaPorChave<>("carrinho.fila", Duration.ofSeconds(1), new SimpleMeterRegistry()),
+                executor,
+                Runnable::run,
+                new MedidorDeEtapas(new SimpleMeterRegistry())
+        );
+    }
+
     private static Stream<Arguments> requestValidandoCampos() {
         return Stream.of(
                 Arguments.of(null, 100L),
@@ -0,0 +1,93 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.ChamadaUnica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChamadaUnicaTest {
+
+    @Test
+    public void executa_chamadasConcorrentesMesmaChave_executaUmaVez() throws Exception {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var chamadaUnica = new ChamadaUnica<Long, String>("item", registry);
+        var chamadasRemotas = new AtomicInteger();
+        var liberaChamada = new CountDownLatch(1);
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+
+        // execução
+        var resultados = new ArrayList<Future<String>>();
+        for (int i = 0; i < threads; i++) {
+            resultados.add(executor.submit(() -> chamadaUnica.executa(123456L, () -> {
+                chamadasRemotas.incrementAndGet();
+                try {
+                    liberaChamada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "resultado";
+            })));
+        }
+        while (registry.counter("chamadas.remotas.agrupadas", "chamada", "item").count() < threads - 1) {
+            Thread.sleep(5);
+        }
+        liberaChamada.countDown();
+
+        // avaliação
+        for (var resultado : resultados) {
+            Assertions.assertEquals("resultado", resultado.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        Assertions.assertEquals(1, chamadasRemotas.get());
+        Assertions.assertEquals(1.0, registry.counter("chamadas.remotas.executadas", "chamada", "item").count());
+    }
+
+    @Test
+    public void executa_chamadaComErro_propagaErroENaoGuardaResultado() {
+        // preparação
+        var chamadaUnica = new ChamadaUnica<Long, String>("item", new SimpleMeterRegistry());
+
+        // execução e avaliação
+        Assertions.assertThrows(IllegalStateException.class, () -> chamadaUnica.executa(123456L, () -> {
+            throw new IllegalStateException("erro remoto");
+        }));
+        Assertions.assertEquals("resultado", chamadaUnica.executa(123456L, () -> "resultado"));
+    }
+
+    @Test
+    public void executaAsync_chamadasMesmaChaveEmAndamento_compartilhamResultado() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var chamadaUnica = new ChamadaUnica<Long, String>("item", registry);
+        var chamadaRemota = new CompletableFuture<String>();
+        var chamadasRemotas = new AtomicInteger();
+
+        // execução
+        var primeira = chamadaUnica.executaAsync(123456L, () -> {
+            chamadasRemotas.incrementAndGet();
+            return chamadaRemota;
+        });
+        var segunda = chamadaUnica.executaAsync(123456L, () -> {
+            chamadasRemotas.incrementAndGet();
+            return CompletableFuture.completedFuture("outro resultado");
+        });
+        chamadaRemota.complete("resultado");
+
+        // avaliação
+        Assertions.assertEquals("resultado", primeira.join());
+        Assertions.assertEquals("resultado", segunda.join());
+        Assertions.assertEquals(1, chamadasRemotas.get());
+        Assertions.assertEquals("novo resultado", chamadaUnica.executaAsync(123456L, () -> CompletableFuture.completedFuture("novo resultado")).join());
+    }
+
+}
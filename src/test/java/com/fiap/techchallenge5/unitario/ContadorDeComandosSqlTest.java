@@ -0,0 +1,40 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.metricas.ContadorDeComandosSql;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static com.fiap.techchallenge5.infrastructure.metricas.ContadorDeComandosSql.METRICA_COMANDOS;
+
+public class ContadorDeComandosSqlTest {
+
+    @Test
+    public void afterQuery_contaCadaComandoPorTipo() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("registry", registry);
+        var dataSource = ProxyDataSourceBuilder.create(new DriverManagerDataSource("jdbc:h2:mem:comandos;DB_CLOSE_DELAY=-1", "sa", ""))
+                .listener(new ContadorDeComandosSql(beanFactory.getBeanProvider(MeterRegistry.class)))
+                .build();
+        var jdbc = new JdbcTemplate(dataSource);
+
+        // execução
+        jdbc.execute("CREATE TABLE tb_teste (id INTEGER PRIMARY KEY)");
+        jdbc.update("INSERT INTO tb_teste VALUES (1)");
+        jdbc.update("INSERT INTO tb_teste VALUES (2)");
+        jdbc.queryForList("SELECT id FROM tb_teste");
+
+        // avaliação
+        Assertions.assertEquals(2.0, registry.get(METRICA_COMANDOS).tag("tipo", "insert").counter().count());
+        Assertions.assertEquals(1.0, registry.get(METRICA_COMANDOS).tag("tipo", "select").counter().count());
+        Assertions.assertEquals(1.0, registry.get(METRICA_COMANDOS).tag("tipo", "other").counter().count());
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.FilaPorChave;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FilaPorChaveTest {
+
+    @Test
+    public void executa_mesmaChave_rodaUmaDeCadaVezSemOcuparThreadsEsperando() throws Exception {
+        // preparação
+        var fila = new FilaPorChave<String>("carrinho.fila", Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var executor = Executors.newSingleThreadExecutor();
+        var emExecucao = new AtomicInteger();
+        var maximoEmExecucao = new AtomicInteger();
+        var acoes = 50;
+
+        // execução
+        var resultados = new ArrayList<CompletableFuture<Boolean>>();
+        for (int i = 0; i < acoes; i++) {
+            resultados.add(fila.executa("teste", executor, () -> {
+                maximoEmExecucao.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+                emExecucao.decrementAndGet();
+                return true;
+            }));
+        }
+
+        // avaliação
+        for (var resultado : resultados) {
+            Assertions.assertTrue(resultado.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        Assertions.assertEquals(1, maximoEmExecucao.get());
+    }
+
+    @Test
+    public void executa_chavesDiferentes_naoEsperaAOutra() throws Exception {
+        // preparação
+        var fila = new FilaPorChave<String>("carrinho.fila", Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var executor = Executors.newFixedThreadPool(2);
+        var libera = new CountDownLatch(1);
+        var ocupada = fila.executa("teste", executor, () -> {
+            try {
+                return libera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        // execução
+        var outra = fila.executa("outro", executor, () -> true);
+
+        // avaliação
+        Assertions.assertTrue(outra.get(1, TimeUnit.SECONDS));
+        Assertions.assertFalse(ocupada.isDone());
+        libera.countDown();
+        Assertions.assertTrue(ocupada.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void executa_esperaMaximaEsgotada_naoExecutaERetornaFalse() throws Exception {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var fila = new FilaPorChave<String>("carrinho.fila", Duration.ofMillis(50), registry);
+        var executor = Executors.newFixedThreadPool(2);
+        var libera = new CountDownLatch(1);
+        var executadas = new AtomicInteger();
+        var ocupada = fila.executa("teste", executor, () -> {
+            try {
+                return libera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        // execução
+        var atrasada = fila.executa("teste", executor, () -> executadas.incrementAndGet() > 0);
+        Thread.sleep(200);
+        libera.countDown();
+
+        // avaliação
+        Assertions.assertTrue(ocupada.get(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(atrasada.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, executadas.get());
+        Assertions.assertEquals(1.0, registry.counter("trava.espera.esgotada", "trava", "carrinho.fila").count());
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+public class ItemConsultaTest {
+
+    @Test
+    public void pegaItem_itemEmCache_naoChamaServicoDeItens() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        Mockito.when(clientItem.pegaItem(123456L, "tokenTeste"))
+                .thenReturn(
+                        new ItemDTO(123456L, new BigDecimal("100.00"))
+                );
+        var consulta = this.criaConsulta(clientItem, Duration.ofMinutes(1), Duration.ofMinutes(2), new SimpleMeterRegistry());
+
+        // execução
+        var primeiro = consulta.pegaItem(123456L, "tokenTeste");
+        var segundo = consulta.pegaItem(123456L, "tokenTeste");
+
+        // avaliação
+        verify(clientItem, times(1)).pegaItem(123456L, "tokenTeste");
+        Assertions.assertEquals(new BigDecimal("100.00"), primeiro.preco());
+        Assertions.assertSame(primeiro, segundo);
+    }
+
+    @Test
+    public void pegaItem_itemObsoleto_serveValorAntigoEAtualizaEmSegundoPlano() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        Mockito.when(clientItem.pegaItem(123456L, "tokenTeste"))
+                .thenReturn(
+                        new ItemDTO(123456L, new BigDecimal("100.00")),
+                        new ItemDTO(123456L, new BigDecimal("120.00"))
+                );
+        var registry = new SimpleMeterRegistry();
+        var consulta = this.criaConsulta(clientItem, Duration.ZERO, Duration.ofMinutes(2), registry);
+
+        // execução
+        consulta.pegaItem(123456L, "tokenTeste");
+        var obsoleto = consulta.pegaItem(123456L, "tokenTeste");
+        var atualizado = consulta.pegaItem(123456L, "tokenTeste");
+
+        // avaliação
+        Assertions.assertEquals(new BigDecimal("100.00"), obsoleto.preco());
+        Assertions.assertEquals(new BigDecimal("120.00"), atualizado.preco());
+        Assertions.assertEquals(2.0, registry.counter("item.preco.obsoletos.servidos").count());
+        Assertions.assertTrue(registry.counter("item.preco.atualizacoes.segundo.plano").count() >= 1.0);
+    }
+
+    @Test
+    public void pegaItemParaCheckout_itemMaisVelhoQueIdadeMaxima_buscaNoServicoDeItens() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        Mockito.when(clientItem.pegaItem(123456L, "tokenTeste"))
+                .thenReturn(
+                        new ItemDTO(123456L, new BigDecimal("100.00")),
+                        new ItemDTO(123456L, new BigDecimal("120.00"))
+                );
+        var consulta = this.criaConsulta(clientItem, Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry());
+
+        // execução
+        consulta.pegaItem(123456L, "tokenTeste");
+        var checkout = consulta.pegaItemParaCheckout(123456L, "tokenTeste");
+
+        // avaliação
+        verify(clientItem, times(2)).pegaItem(123456L, "tokenTeste");
+        Assertions.assertEquals(new BigDecimal("120.00"), checkout.preco());
+    }
+
+    @Test
+    public void pegaItem_itemNaoEncontrado_naoFicaEmCache() {
+        // preparação
+        var clientItem = Mockito.mock(ItemClient.class);
+        Mockito.when(clientItem.pegaItem(123456L, "tokenTeste"))
+                .thenReturn(
+                        null
+                );
+        var consulta = this.criaConsulta(clientItem, Duration.ofMinutes(1), Duration.ofMinutes(2), new SimpleMeterRegistry());
+
+        // execução
+        var primeiro = consulta.pegaItem(123456L, "tokenTeste");
+        var segundo = consulta.pegaItem(123456L, "tokenTeste");
+
+        // avaliação
+        verify(clientItem, times(2)).pegaItem(123456L, "tokenTeste");
+        Assertions.assertNull(primeiro);
+        Assertions.assertNull(segundo);
+    }
+
+    private ItemConsulta criaConsulta(final ItemClient clientItem,
+                                      final Duration tempoDeVida,
+                                      final Duration idadeMaximaCheckout,
+                                      final SimpleMeterRegistry registry) {
+        return new ItemConsulta(
+                clientItem,
+                Runnable::run,
+                tempoDeVida,
+                Duration.ofMinutes(10),
+                idadeMaximaCheckout,
+                1000,
+                registry
+        );
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.fiap.techchallenge5.infrastructure.metricas.MedidorDeEtapas.METRICA_ETAPA;
+
+public class MedidorDeEtapasTest {
+
+    @Test
+    public void mede_etapaComResultado_registraSucesso() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var medidor = new MedidorDeEtapas(registry);
+
+        // execução
+        var resultado = medidor.mede("insere", "item", () -> "item");
+
+        // avaliação
+        Assertions.assertEquals("item", resultado);
+        Assertions.assertEquals(1, registry.get(METRICA_ETAPA)
+                .tags("operacao", "insere", "etapa", "item", "resultado", "sucesso")
+                .timer()
+                .count());
+    }
+
+    @Test
+    public void mede_etapaSemResultadoOuComErro_registraResultadoDaEtapa() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var medidor = new MedidorDeEtapas(registry);
+
+        // execução
+        medidor.mede("finaliza", "usuario", () -> null);
+        medidor.mede("finaliza", "usuario", () -> false);
+        Assertions.assertThrows(IllegalStateException.class, () -> medidor.mede("finaliza", "usuario", () -> {
+            throw new IllegalStateException("erro remoto");
+        }));
+
+        // avaliação
+        Assertions.assertEquals(2, registry.get(METRICA_ETAPA)
+                .tags("etapa", "usuario", "resultado", "sem_resultado")
+                .timer()
+                .count());
+        Assertions.assertEquals(1, registry.get(METRICA_ETAPA)
+                .tags("etapa", "usuario", "resultado", "erro")
+                .timer()
+                .count());
+    }
+
+    @Test
+    public void medeAsync_registraQuandoOFuturoCompleta() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var medidor = new MedidorDeEtapas(registry);
+        var chamada = new CompletableFuture<Boolean>();
+
+        // execução
+        var resultado = medidor.medeAsync("insere", "total", () -> chamada);
+        var antesDeCompletar = registry.find(METRICA_ETAPA).timers().size();
+        chamada.complete(true);
+
+        // avaliação
+        Assertions.assertTrue(resultado.join());
+        Assertions.assertEquals(0, antesDeCompletar);
+        Assertions.assertEquals(1, registry.get(METRICA_ETAPA)
+                .tags("operacao", "insere", "etapa", "total", "resultado", "sucesso")
+                .timer()
+                .count());
+    }
+
+}
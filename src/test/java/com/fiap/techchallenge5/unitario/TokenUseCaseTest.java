@@ -0,0 +1,78 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.integrados.JwtUtil;
+import com.fiap.techchallenge5.useCase.token.impl.TokenUseCaseImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class TokenUseCaseTest {
+
+    @Test
+    public void pegaJwt_tokenValido_reaproveitaVerificacaoDoCache() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var service = new TokenUseCaseImpl("segredoMaisSeguroDoMundo", 100, Duration.ofHours(1), registry);
+        var token = JwtUtil.geraJwt();
+
+        // execução
+        var primeiro = service.pegaJwt(token);
+        var segundo = service.pegaJwt(token);
+
+        // avaliação
+        Assertions.assertNotNull(primeiro);
+        Assertions.assertSame(primeiro, segundo);
+        Assertions.assertEquals("teste", service.pegaUsuario(segundo));
+        Assertions.assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void pegaJwt_tokenExpirado_naoFicaNoCache() {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var service = new TokenUseCaseImpl("segredoMaisSeguroDoMundo", 100, Duration.ofHours(1), registry);
+        var token = JwtUtil.geraJwt(Instant.now().minusSeconds(60));
+
+        // execução
+        var primeiro = service.pegaJwt(token);
+        var segundo = service.pegaJwt(token);
+
+        // avaliação
+        Assertions.assertNull(primeiro);
+        Assertions.assertNull(segundo);
+        Assertions.assertEquals(2.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void pegaJwt_tokenComOutroSegredo_retornaNulo() {
+        // preparação
+        var service = new TokenUseCaseImpl("outroSegredo", 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        // execução
+        var jwt = service.pegaJwt(JwtUtil.geraJwt());
+
+        // avaliação
+        Assertions.assertNull(jwt);
+    }
+
+    @Test
+    public void pegaPermissoes_reaproveitaPermissoesDaRole() {
+        // preparação
+        var service = new TokenUseCaseImpl("segredoMaisSeguroDoMundo", 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        // execução
+        var permissoesAdmin = service.pegaPermissoes(service.pegaJwt(JwtUtil.geraJwt("ADMIN", "admin")));
+        var permissoesUser = service.pegaPermissoes(service.pegaJwt(JwtUtil.geraJwt("USER", "usuario")));
+        var permissoesOutroAdmin = service.pegaPermissoes(service.pegaJwt(JwtUtil.geraJwt("ADMIN", "outroAdmin")));
+
+        // avaliação
+        Assertions.assertEquals("ROLE_ADMIN", permissoesAdmin.iterator().next().getAuthority());
+        Assertions.assertEquals("ROLE_USER", permissoesUser.iterator().next().getAuthority());
+        Assertions.assertSame(permissoesAdmin, permissoesOutroAdmin);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.concorrencia.TravaPorChave;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TravaPorChaveTest {
+
+    @Test
+    public void executa_acoesConcorrentesMesmaChave_rodamUmaDeCadaVez() throws Exception {
+        // preparação
+        var trava = new TravaPorChave<String>("carrinho", 16, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var emExecucao = new AtomicInteger();
+        var maximoEmExecucao = new AtomicInteger();
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+
+        // execução
+        var resultados = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < threads; i++) {
+            resultados.add(executor.submit(() -> trava.executa("teste", () -> {
+                maximoEmExecucao.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                emExecucao.decrementAndGet();
+                return true;
+            })));
+        }
+
+        // avaliação
+        for (var resultado : resultados) {
+            Assertions.assertTrue(resultado.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        Assertions.assertEquals(1, maximoEmExecucao.get());
+    }
+
+    @Test
+    public void executa_chavesDeTravasDiferentes_rodamEmParalelo() throws Exception {
+        // preparação
+        var trava = new TravaPorChave<Integer>("carrinho", 16, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var ambasDentro = new CountDownLatch(2);
+        var executor = Executors.newFixedThreadPool(2);
+
+        // execução
+        var resultados = new ArrayList<Future<Boolean>>();
+        for (int chave = 0; chave < 2; chave++) {
+            final var chaveDaThread = chave;
+            resultados.add(executor.submit(() -> trava.executa(chaveDaThread, () -> {
+                ambasDentro.countDown();
+                try {
+                    return ambasDentro.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            })));
+        }
+
+        // avaliação
+        for (var resultado : resultados) {
+            Assertions.assertTrue(resultado.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void executa_travaOcupadaAlemDaEsperaMaxima_retornaFalseSemExecutar() throws Exception {
+        // preparação
+        var registry = new SimpleMeterRegistry();
+        var trava = new TravaPorChave<String>("carrinho", 16, Duration.ofMillis(50), registry);
+        var ocupada = new CountDownLatch(1);
+        var libera = new CountDownLatch(1);
+        var executor = Executors.newSingleThreadExecutor();
+        var dono = executor.submit(() -> trava.executa("teste", () -> {
+            ocupada.countDown();
+            try {
+                return libera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        ocupada.await(5, TimeUnit.SECONDS);
+        var executou = new AtomicInteger();
+
+        // execução
+        var resultado = trava.executa("teste", () -> executou.incrementAndGet() > 0);
+        libera.countDown();
+
+        // avaliação
+        Assertions.assertFalse(resultado);
+        Assertions.assertEquals(0, executou.get());
+        Assertions.assertTrue(dono.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assertions.assertEquals(1.0, registry.counter("trava.espera.esgotada", "trava", "carrinho").count());
+        Assertions.assertEquals(2, registry.get("trava.espera").tag("trava", "carrinho").timer().count());
+    }
+
+    @Test
+    public void construtor_semTravas_lancaExcecao() {
+        // execução e avaliação
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TravaPorChave<String>("carrinho", 0, Duration.ofSeconds(1), new SimpleMeterRegistry()));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.fiap.techchallenge5.unitario;
+
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+public class UsuarioConsultaTest {
+
+    @Test
+    public void usuarioExiste_usuarioEncontrado_ficaEmCache() {
+        // preparação
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        Mockito.when(clientUsuario.usuarioExiste("teste", "tokenTeste"))
+                .thenReturn(
+                        true
+                );
+        var consulta = this.criaConsulta(clientUsuario, Duration.ofMinutes(30));
+
+        // execução
+        var primeiro = consulta.usuarioExiste("teste", "tokenTeste");
+        var segundo = consulta.usuarioExiste("teste", "tokenTeste");
+
+        // avaliação
+        verify(clientUsuario, times(1)).usuarioExiste("teste", "tokenTeste");
+        Assertions.assertTrue(primeiro);
+        Assertions.assertTrue(segundo);
+    }
+
+    @Test
+    public void usuarioExiste_usuarioNaoEncontrado_ficaEmCacheNegativo() {
+        // preparação
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        Mockito.when(clientUsuario.usuarioExiste("teste", "tokenTeste"))
+                .thenReturn(
+                        false
+                );
+        var consulta = this.criaConsulta(clientUsuario, Duration.ofMinutes(30));
+
+        // execução
+        consulta.usuarioExiste("teste", "tokenTeste");
+        var segundo = consulta.usuarioExiste("teste", "tokenTeste");
+
+        // avaliação
+        verify(clientUsuario, times(1)).usuarioExiste("teste", "tokenTeste");
+        Assertions.assertFalse(segundo);
+    }
+
+    @Test
+    public void usuarioExiste_cacheNegativoExpirado_buscaNovamente() {
+        // preparação
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        Mockito.when(clientUsuario.usuarioExiste("teste", "tokenTeste"))
+                .thenReturn(
+                        false,
+                        true
+                );
+        var consulta = this.criaConsulta(clientUsuario, Duration.ZERO);
+
+        // execução
+        var primeiro = consulta.usuarioExiste("teste", "tokenTeste");
+        var segundo = consulta.usuarioExiste("teste", "tokenTeste");
+
+        // avaliação
+        verify(clientUsuario, times(2)).usuarioExiste("teste", "tokenTeste");
+        Assertions.assertFalse(primeiro);
+        Assertions.assertTrue(segundo);
+    }
+
+    @Test
+    public void invalida_removeUsuarioDoCache() {
+        // preparação
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        Mockito.when(clientUsuario.usuarioExiste("teste", "tokenTeste"))
+                .thenReturn(
+                        true,
+                        false
+                );
+        var consulta = this.criaConsulta(clientUsuario, Duration.ofMinutes(30));
+
+        // execução
+        consulta.usuarioExiste("teste", "tokenTeste");
+        consulta.invalida("teste");
+        var depoisDeInvalidar = consulta.usuarioExiste("teste", "tokenTeste");
+
+        // avaliação
+        verify(clientUsuario, times(2)).usuarioExiste("teste", "tokenTeste");
+        Assertions.assertFalse(depoisDeInvalidar);
+    }
+
+    @Test
+    public void usuarioExiste_erroNoServico_naoFicaEmCache() {
+        // preparação
+        var clientUsuario = Mockito.mock(UsuarioClient.class);
+        Mockito.when(clientUsuario.usuarioExiste("teste", "tokenTeste"))
+                .thenThrow(new RuntimeException("serviço indisponível"))
+                .thenReturn(true);
+        var consulta = this.criaConsulta(clientUsuario, Duration.ofMinutes(30));
+
+        // execução
+        Assertions.assertThrows(RuntimeException.class, () -> consulta.usuarioExiste("teste", "tokenTeste"));
+        var segundo = consulta.usuarioExiste("teste", "tokenTeste");
+
+        // avaliação
+        verify(clientUsuario, times(2)).usuarioExiste("teste", "tokenTeste");
+        Assertions.assertTrue(segundo);
+    }
+
+    private UsuarioConsulta criaConsulta(final UsuarioClient clientUsuario,
+                                         final Duration tempoInexistente) {
+        return new UsuarioConsulta(
+                clientUsuario,
+                Duration.ofMinutes(30),
+                tempoInexistente,
+                1000,
+                new SimpleMeterRegistry()
+        );
+    }
+
+}
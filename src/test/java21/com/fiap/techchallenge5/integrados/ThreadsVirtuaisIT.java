@@ -0,0 +1,182 @@
+package com.fiap.techchallenge5.integrados;
+
+import com.fiap.techchallenge5.domain.UsuarioAutenticado;
+import com.fiap.techchallenge5.infrastructure.carrinho.consulta.CarrinhoConsulta;
+import com.fiap.techchallenge5.infrastructure.carrinho.controller.dto.AdicionaItemDTO;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.CarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.carrinho.repository.ItensNoCarrinhoRepository;
+import com.fiap.techchallenge5.infrastructure.item.client.ItemClient;
+import com.fiap.techchallenge5.infrastructure.item.client.response.ItemDTO;
+import com.fiap.techchallenge5.infrastructure.item.consulta.ItemConsulta;
+import com.fiap.techchallenge5.infrastructure.usuario.client.UsuarioClient;
+import com.fiap.techchallenge5.infrastructure.usuario.consulta.UsuarioConsulta;
+import com.fiap.techchallenge5.useCase.carrinho.CarrinhoUseCase;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.fiap.techchallenge5.infrastructure.config.ExecutoresConfig.EXECUTOR_CHAMADAS_REMOTAS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Roda as operações do carrinho (inserção, consulta do carrinho disponível com e sem cache, remoção e finalização)
+ * em threads virtuais e procura, com o JFR, threads virtuais que bloquearam presas à thread de plataforma (pinning),
+ * por exemplo por um {@code synchronized} ou pela trava de um mapa no caminho da requisição.
+ * <p>
+ * Só compila e roda com o perfil {@code java21}: {@code mvn -Pjava21 test -Dtest=ThreadsVirtuaisIT}.
+ */
+@Slf4j
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ThreadsVirtuaisIT {
+
+    private static final int USUARIOS = 200;
+
+    @Autowired
+    @MockBean
+    ItemClient clientItem;
+
+    @Autowired
+    @MockBean
+    UsuarioClient clientUsuario;
+
+    @Autowired
+    CarrinhoUseCase service;
+
+    @Autowired
+    CarrinhoRepository repositoryCarrinho;
+
+    @Autowired
+    ItensNoCarrinhoRepository repositoryItensNoCarrinho;
+
+    @Autowired
+    ItemConsulta consultaItem;
+
+    @Autowired
+    UsuarioConsulta consultaUsuario;
+
+    @Autowired
+    CarrinhoConsulta consultaCarrinho;
+
+    @Autowired
+    @Qualifier(EXECUTOR_CHAMADAS_REMOTAS)
+    Executor executorChamadasRemotas;
+
+    @BeforeEach
+    void inicializaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+        this.consultaItem.invalidaTodos();
+        this.consultaUsuario.invalidaTodos();
+        this.consultaCarrinho.invalidaTodos();
+
+        Mockito.when(this.clientItem.pegaItem(anyLong(), any()))
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(20);
+                    return new ItemDTO(invocacao.getArgument(0), new BigDecimal("10.00"));
+                });
+        Mockito.when(this.clientUsuario.usuarioExiste(any(), any()))
+                .thenAnswer(invocacao -> {
+                    Thread.sleep(20);
+                    return true;
+                });
+    }
+
+    @AfterAll
+    void finalizaLimpezaDoDatabase() {
+        this.repositoryCarrinho.deleteAll();
+        this.repositoryItensNoCarrinho.deleteAll();
+    }
+
+    @Test
+    public void chamadasRemotas_rodamEmThreadsVirtuais() throws Exception {
+        // preparação
+        final var virtual = new CompletableFuture<Boolean>();
+
+        // execução
+        this.executorChamadasRemotas.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+
+        // avaliação
+        Assertions.assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void operacoesDoCarrinho_emThreadsVirtuais_naoPrendemAThreadDePlataforma() throws Exception {
+        // preparação
+        final var fixacoes = new CopyOnWriteArrayList<RecordedEvent>();
+        try (var gravacao = new RecordingStream()) {
+            gravacao.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            gravacao.onEvent("jdk.VirtualThreadPinned", fixacoes::add);
+            gravacao.startAsync();
+
+            // execução
+            final var resultados = new ArrayList<Future<Boolean>>();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < USUARIOS; i++) {
+                    final var usuario = new UsuarioAutenticado("usuario" + i, "Bearer token");
+                    final var ean = 1000L + 2L * i;
+                    resultados.add(executor.submit(() -> this.percorreCarrinho(usuario, ean)));
+                }
+                for (var resultado : resultados) {
+                    Assertions.assertTrue(resultado.get(60, TimeUnit.SECONDS));
+                }
+            }
+            Thread.sleep(500);
+        }
+
+        // avaliação
+        log.info("{} fixacoes de threads virtuais", fixacoes.size());
+        Assertions.assertEquals(List.of(), fixacoes.stream().map(ThreadsVirtuaisIT::pilha).toList());
+    }
+
+    /**
+     * Dois itens, o carrinho disponível montado do banco e depois servido do cache, a remoção de um item,
+     * o carrinho montado de novo e a finalização.
+     */
+    private boolean percorreCarrinho(final UsuarioAutenticado usuario,
+                                     final long ean) {
+        if(!this.service.insere(new AdicionaItemDTO(ean, 1L), usuario)
+                || !this.service.insere(new AdicionaItemDTO(ean + 1, 1L), usuario)) {
+            return false;
+        }
+        final var montado = this.service.disponivelParaPagamento(usuario);
+        final var emCache = this.service.disponivelParaPagamento(usuario);
+        if(Objects.isNull(montado) || montado != emCache || montado.itens().size() != 2) {
+            return false;
+        }
+        if(!this.service.remove(ean, usuario)) {
+            return false;
+        }
+        final var depoisDaRemocao = this.service.disponivelParaPagamento(usuario);
+        return Objects.nonNull(depoisDaRemocao)
+                && depoisDaRemocao.itens().size() == 1
+                && this.service.finaliza(usuario);
+    }
+
+    private static String pilha(final RecordedEvent evento) {
+        return evento.getStackTrace().getFrames().stream()
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+}
@@ -6,6 +6,7 @@ Funcionalidade: Teste de verificação se carrinho esta disponivel para pagament
     Dado que verifico um carrinho que esteja disponivel para pagamento
     Quando verifico esse carrinho
     Entao recebo uma resposta que o carrinho esta disponivel para pagamento
+    E a verificação executou no máximo 1 comandos no banco de dados
 
   Cenário: Verifica carrinho já finalizado
     Dado que verifico um carrinho que ja esteja finalizado
@@ -16,6 +17,7 @@ Funcionalidade: Teste de verificação se carrinho esta disponivel para pagament
     Dado que verifico um carrinho que não existe
     Quando verifico esse carrinho
     Entao recebo uma resposta que o carrinho não esta disponivel para pagamento
+    E a verificação executou no máximo 1 comandos no banco de dados
 
   Cenário: Verifica carrinho com usuário que não existe no sistema
     Dado que verifico um carrinho com um usuário que não existe no sistema
@@ -6,6 +6,7 @@ Funcionalidade: Teste de finalização de carrinho
     Dado que finalizo um carrinho que esteja disponivel para pagamento
     Quando finalizo esse carrinho
     Entao recebo uma resposta que o carrinho foi finalizado
+    E a finalização executou no máximo 3 comandos no banco de dados
 
   Cenário: Finaliza carrinho já finalizado
     Dado que finalizo um carrinho que ja esteja finalizado
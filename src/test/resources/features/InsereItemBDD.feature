@@ -6,11 +6,13 @@ Funcionalidade: Teste de inserção de itens no carrinho
     Dado que insiro um item no carrinho vazio
     Quando insiro o item no carrinho
     Entao recebo uma resposta que o item foi inserido com sucesso
+    E o insere executou no máximo 5 comandos no banco de dados
 
   Cenário: Insere item com carrinho com item
     Dado que insiro um item no carrinho que já tem um item
     Quando insiro o item no carrinho
     Entao recebo uma resposta que o item foi inserido com sucesso
+    E o insere executou no máximo 3 comandos no banco de dados
 
   Cenário: Insere item que não esta no cadastro do sistema
     Dado que insiro um item que não esta cadastrado no sistema
@@ -21,3 +23,4 @@ Funcionalidade: Teste de inserção de itens no carrinho
     Dado que insiro um item com um usuário que não existe no sistema
     Quando insiro o item no carrinho
     Entao recebo uma resposta que o item não foi inserido
+    E o insere executou no máximo 0 comandos no banco de dados
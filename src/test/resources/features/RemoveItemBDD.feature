@@ -6,6 +6,7 @@ Funcionalidade: Teste de remoção de itens no carrinho
     Dado que removo um item no carrinho que já tem um item
     Quando removo o item no carrinho
     Entao recebo uma resposta que o item foi removido com sucesso
+    E a remoção executou no máximo 3 comandos no banco de dados
 
   Cenário: Remove item com carrinho não existente
     Dado que removo um item que não tem carrinho para o usuário ainda
@@ -21,6 +22,7 @@ Funcionalidade: Teste de remoção de itens no carrinho
     Dado que removo o último item no carrinho
     Quando removo o item no carrinho
     Entao recebo uma resposta que o item foi removido com sucesso
+    E a remoção executou no máximo 4 comandos no banco de dados
 
   Cenário: Remove item que não esta no cadastro do sistema
     Dado que removo um item que não esta cadastrado no sistema